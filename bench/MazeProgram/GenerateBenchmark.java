@@ -0,0 +1,41 @@
+package MazeProgram;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of generating a maze of 'size' by 'size' cells in instant mode with every algorithim,
+ * including setting up its grid
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GenerateBenchmark {
+
+    @Param({"40", "256", "1024", "4096"})
+    public int size;
+
+    /**
+     * The algorithim carving the maze, every one of them unless others are given with '-p'
+     */
+    @Param
+    public Algorithm algorithm;
+
+    @Benchmark
+    public void generate(Blackhole blackhole) {
+        blackhole.consume(Maze.generate(size, size, MazeBenchmark.SEED, algorithm));
+    }
+}
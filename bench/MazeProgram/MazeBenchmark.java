@@ -0,0 +1,56 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * What the JMH benchmarks of the maze program share. The benchmarks measure grid setup, instant
+ * maze generation with every algorithim, the tiled generator against the recursive backtracker,
+ * single algorithim steps, solving with every solver and rendering, each across grid sizes of
+ * 40x40 up to 4096x4096. Every maze is drawn from the same fixed seed, so results are comparable
+ * between runs and can be used to gate changes to performance. Every benchmark reports its
+ * throughput, and running with '-prof gc' adds the bytes it allocates per operation. See the
+ * README for how to run them.
+ */
+final class MazeBenchmark {
+
+    /**
+     * The seed every benchmarked maze is drawn from
+     */
+    static final long SEED = 42L;
+
+    /**
+     * The width and height of the image mazes are painted onto, as large as the maze in the window
+     */
+    static final int IMAGE_SIZE = MazeGUI.MAZE_WIDTH + 1;
+
+    private MazeBenchmark() {
+    }
+
+    /**
+     * Returns a new image to paint mazes onto
+     */
+    static BufferedImage newImage() {
+        return new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Returns a new component drawing 'grid' sized to paint onto an image from 'newImage()'
+     */
+    static GridCell newView(MazeGrid grid) {
+        GridCell view = new GridCell(grid, 0, 0, IMAGE_SIZE - 1, Color.CYAN);
+        view.setSize(IMAGE_SIZE, IMAGE_SIZE);
+        return view;
+    }
+
+    /**
+     * Paints 'view' onto 'image' like Swing would paint it onto the screen, and returns 'image'
+     */
+    static BufferedImage paint(GridCell view, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        view.paintComponent(g);
+        g.dispose();
+        return image;
+    }
+}
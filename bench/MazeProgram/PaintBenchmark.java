@@ -0,0 +1,65 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of rendering a recursive backtracker maze of 'size' by 'size' cells into an offscreen
+ * image through 'GridCell.paintComponent', either just copying its backbuffer or redrawing every
+ * visible wall first as after a change of color. When 'zoomed', the view is zoomed in so a cell
+ * is as wide as in the default window and only the cells in view are drawn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PaintBenchmark {
+
+    @Param({"40", "256", "1024", "4096"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean zoomed;
+
+    private GridCell view;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void createView() {
+        MazeGrid grid = Maze.generate(size, size, MazeBenchmark.SEED,
+                Algorithm.RECURSIVE_BACKTRACKER).grid();
+        view = MazeBenchmark.newView(grid);
+        image = MazeBenchmark.newImage();
+        if (zoomed) {
+            view.zoom(0, 0, (double) MazeGUI.CELL_WIDTH * size / MazeGUI.MAZE_WIDTH);
+        }
+        MazeBenchmark.paint(view, image);
+    }
+
+    @Benchmark
+    public void paint(Blackhole blackhole) {
+        blackhole.consume(MazeBenchmark.paint(view, image));
+    }
+
+    @Benchmark
+    public void redraw(Blackhole blackhole) {
+        view.updateColor(Color.CYAN);
+        blackhole.consume(MazeBenchmark.paint(view, image));
+    }
+}
@@ -0,0 +1,51 @@
+package MazeProgram;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of solving a recursive backtracker maze of 'size' by 'size' cells from the top left
+ * cell to the bottom right cell with every solver
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SolveBenchmark {
+
+    @Param({"40", "256", "1024", "4096"})
+    public int size;
+
+    /**
+     * The solver, every one of them unless others are given with '-p'
+     */
+    @Param
+    public MazeSolver solver;
+
+    private MazeGrid grid;
+
+    @Setup(Level.Trial)
+    public void generateMaze() {
+        grid = Maze.generate(size, size, MazeBenchmark.SEED,
+                Algorithm.RECURSIVE_BACKTRACKER).grid();
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        blackhole.consume(solver.solve(grid, 0, grid.cellCount() - 1));
+    }
+}
@@ -0,0 +1,60 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of a single step of the recursive backtracker on a grid of 'size' by 'size' cells,
+ * starting over on the same grid whenever the maze is complete. When 'animated', every wall
+ * removed is also drawn into the backbuffer of a view of the grid, as while animating.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StepBenchmark {
+
+    @Param({"40", "256", "1024", "4096"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean animated;
+
+    private MazeGrid grid;
+    private RecursiveBacktracker backtracker;
+
+    @Setup(Level.Trial)
+    public void createGrid() {
+        grid = new MazeGrid(size, size);
+        backtracker = new RecursiveBacktracker(grid, new SplittableRandom(MazeBenchmark.SEED));
+        if (animated) {
+            GridCell view = MazeBenchmark.newView(grid);
+            MazeBenchmark.paint(view, MazeBenchmark.newImage()); // creates the backbuffer
+            grid.setWallListener(view);
+        }
+    }
+
+    @Benchmark
+    public void step(Blackhole blackhole) {
+        if (!backtracker.step()) {
+            grid.walls().fill(-1L);
+            backtracker = new RecursiveBacktracker(grid, new SplittableRandom(MazeBenchmark.SEED));
+        }
+        blackhole.consume(grid);
+    }
+}
@@ -0,0 +1,80 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of the tiled generator carving a grid of 'size' by 'size' cells on one thread and on
+ * a thread per core, against the recursive backtracker carving the whole grid on one thread. The
+ * speedup of the tiles is the ratio of their throughput to the backtracker's.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TiledBenchmark {
+
+    @Param({"40", "256", "1024", "4096"})
+    public int size;
+
+    /**
+     * The pools carving the tiles with one thread and with a thread per core
+     */
+    private ForkJoinPool singleThread;
+    private ForkJoinPool allCores;
+
+    @Setup(Level.Trial)
+    public void createPools() {
+        singleThread = new ForkJoinPool(1);
+        allCores = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPools() {
+        singleThread.shutdown();
+        allCores.shutdown();
+    }
+
+    @Benchmark
+    public void backtracker(Blackhole blackhole) {
+        MazeGrid grid = new MazeGrid(size, size);
+        new RecursiveBacktracker(grid, new SplittableRandom(MazeBenchmark.SEED)).run();
+        blackhole.consume(grid);
+    }
+
+    @Benchmark
+    public void tiledSingleThread(Blackhole blackhole) {
+        blackhole.consume(tiled(singleThread));
+    }
+
+    @Benchmark
+    public void tiledAllCores(Blackhole blackhole) {
+        blackhole.consume(tiled(allCores));
+    }
+
+    /**
+     * Returns a new grid carved by the tiled generator on 'pool'
+     */
+    private MazeGrid tiled(ForkJoinPool pool) {
+        MazeGrid grid = new MazeGrid(size, size);
+        TiledGenerator.generate(grid, MazeBenchmark.SEED, TiledGenerator.DEFAULT_TILE_SIZE, pool);
+        return grid;
+    }
+}
@@ -0,0 +1,110 @@
+package MazeProgram;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * The Aldous-Broder algorithim, which picks uniformly among all possible mazes. A random walk
+ * moves around the grid and removes the wall to every cell it enters for the first time, until
+ * every cell has been visited. Simple but slow, as the walk keeps revisiting cells near the end.
+ */
+public class AldousBroder implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The cells the walk has visited
+     */
+    private final BitSet visited;
+
+    /**
+     * The cell the walk is at
+     */
+    private int currentCell;
+
+    /**
+     * The number of cells not yet visited
+     */
+    private int remaining;
+
+    /**
+     * The number of cells the walk has been at, the cell it started from included
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'AldousBroder' that carves 'grid' using 'rand', starting the walk from a
+     * random cell. Requires that 'grid' has every wall intact and 'rand' is not null.
+     */
+    public AldousBroder(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        int n = grid.intCellCount();
+        this.grid = grid;
+        this.rand = rand;
+        this.visited = new BitSet(n);
+        this.currentCell = rand.nextInt(n);
+        this.remaining = n - 1;
+        this.visits = 1;
+        visited.set(currentCell);
+    }
+
+    /**
+     * Starts over on 'newGrid', clearing the visited set in place. Returns false if 'newGrid'
+     * doesn't have the same dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        int n = (int) newGrid.cellCount();
+        visited.clear();
+        currentCell = rand.nextInt(n);
+        remaining = n - 1;
+        visits = 1;
+        visited.set(currentCell);
+        return true;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return remaining == 0;
+    }
+
+    /**
+     * Moves the walk to a random neighbor, removing the wall to it if it is visited for the first
+     * time. Returns whether there are steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (remaining == 0) {
+            return false;
+        }
+        int dir = MazeAlgorithm.randomDirection(grid.neighborMask(currentCell), rand);
+        int neighbor = (int) (currentCell + grid.offset(dir));
+        if (!visited.get(neighbor)) {
+            grid.removeWall(currentCell, dir);
+            visited.set(neighbor);
+            remaining--;
+        }
+        currentCell = neighbor;
+        visits++;
+        return remaining > 0;
+    }
+}
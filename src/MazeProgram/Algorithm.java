@@ -0,0 +1,102 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The algorithims available for generating a maze, each with the id it is stored under and the
+ * name shown to the user. Ids are never changed or reused, so saved mazes keep naming the same
+ * algorithim however the constants are reordered.
+ */
+public enum Algorithm {
+
+    RECURSIVE_BACKTRACKER(0, "Recursive Backtracker"),
+    TILED_BACKTRACKER(1, "Tiled Backtracker"),
+    KRUSKAL(2, "Kruskal's"),
+    PRIM(3, "Prim's"),
+    WILSON(4, "Wilson's"),
+    ALDOUS_BRODER(5, "Aldous-Broder"),
+    BINARY_TREE(6, "Binary Tree"),
+    SIDEWINDER(7, "Sidewinder"),
+    GROWING_TREE(8, "Growing Tree"),
+    ELLER(9, "Eller's");
+
+    /**
+     * The id the algorithim is stored under and the name shown to the user
+     */
+    private final int id;
+    private final String displayName;
+
+    Algorithm(int id, String displayName) {
+        this.id = id;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the id the algorithim is stored under
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Returns the algorithim stored under 'id', or null if there is none
+     */
+    public static Algorithm fromId(int id) {
+        for (Algorithm algorithm : values()) {
+            if (algorithm.id == id) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a new instance of this algorithim that carves 'grid', drawing every random choice
+     * from 'seed'. Requires that 'grid' has every wall intact.
+     */
+    public MazeAlgorithm create(MazeGrid grid, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        switch (this) {
+            case TILED_BACKTRACKER:
+                return new TiledGenerator(grid, seed, TiledGenerator.DEFAULT_TILE_SIZE,
+                        ForkJoinPool.commonPool());
+            case KRUSKAL:
+                return new Kruskal(grid, rand);
+            case PRIM:
+                return new Prim(grid, rand);
+            case WILSON:
+                return new Wilson(grid, rand);
+            case ALDOUS_BRODER:
+                return new AldousBroder(grid, rand);
+            case BINARY_TREE:
+                return new BinaryTree(grid, rand);
+            case SIDEWINDER:
+                return new Sidewinder(grid, rand);
+            case GROWING_TREE:
+                return new GrowingTree(grid, rand, GrowingTree.DEFAULT_NEWEST_CHANCE);
+            case ELLER:
+                return new Eller(grid, rand);
+            default:
+                return new RecursiveBacktracker(grid, rand);
+        }
+    }
+
+    /**
+     * Returns 'previous' restarted on 'grid' with 'seed' if it can be restarted there, reusing its
+     * memory, or a new instance like 'create(grid, seed)' otherwise. Either way it carves the same
+     * maze. Requires that 'previous' is null or was created by this algorithim and that 'grid' has
+     * every wall intact.
+     */
+    public MazeAlgorithm reuse(MazeAlgorithm previous, MazeGrid grid, long seed) {
+        if (previous != null && previous.restart(grid, new SplittableRandom(seed))) {
+            return previous;
+        }
+        return create(grid, seed);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,66 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+
+/**
+ * The binary tree algorithim. Every cell removes either its top or its left wall at random, so
+ * cells are handled one at a time in index order with no memory besides the grid. The mazes are
+ * heavily biased, with open corridors along the top row and left column.
+ */
+public class BinaryTree implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * The next cell to handle
+     */
+    private long nextCell;
+
+    /**
+     * Constructs a new 'BinaryTree' that carves 'grid' using 'rand'. Requires that 'grid' has
+     * every wall intact and 'rand' is not null.
+     */
+    public BinaryTree(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        this.grid = grid;
+        this.rand = rand;
+    }
+
+    /**
+     * Returns the number of cells handled, each once
+     */
+    @Override
+    public long cellsVisited() {
+        return nextCell;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return nextCell == grid.cellCount();
+    }
+
+    /**
+     * Removes the top or left wall of the next cell. Returns whether there are steps left to
+     * perform.
+     */
+    @Override
+    public boolean step() {
+        if (nextCell == grid.cellCount()) {
+            return false;
+        }
+        int mask = grid.neighborMask(nextCell) & ((1 << MazeGrid.TOP) | (1 << MazeGrid.LEFT));
+        if (mask != 0) { // only the top left cell has neither
+            grid.removeWall(nextCell, MazeAlgorithm.randomDirection(mask, rand));
+        }
+        nextCell++;
+        return nextCell != grid.cellCount();
+    }
+}
@@ -0,0 +1,115 @@
+package MazeProgram;
+
+/**
+ * A stack of directions packed as 2 bits per entry into a growable 'WordStore' (32 entries per
+ * word). Used by the backtracking algorithim to remember the direction it came from at every step
+ * instead of the cells themselves, so a stack holding every cell of the grid only takes a quarter
+ * of a byte per cell.
+ */
+public class DirectionStack {
+
+    /**
+     * The number of words allocated for a new stack
+     */
+    private static final int INITIAL_WORDS = 16;
+
+    /**
+     * The packed directions, the entry at index 'i' is held in bits '2 * (i % 32)' and up of word
+     * 'i / 32'
+     */
+    private WordStore words;
+
+    /**
+     * The number of directions on the stack
+     */
+    private long size;
+
+    /**
+     * The most directions the stack has held since it was created or last cleared
+     */
+    private long peakSize;
+
+    /**
+     * Constructs a new empty 'DirectionStack' on the Java heap
+     */
+    public DirectionStack() {
+        this(new HeapWordStore(INITIAL_WORDS));
+    }
+
+    /**
+     * Constructs a new empty 'DirectionStack' starting out in 'words'. When full, the stack grows
+     * into a store allocated by 'words.allocate'. Requires that 'words' holds at least one word.
+     */
+    public DirectionStack(WordStore words) {
+        assert words != null && words.size() > 0;
+        this.words = words;
+    }
+
+    /**
+     * Returns the number of directions on the stack
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the most directions the stack has held since it was created or last cleared
+     */
+    public long peakSize() {
+        return peakSize;
+    }
+
+    /**
+     * Returns whether the stack is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every direction from the stack and forgets its peak size, keeping the allocated
+     * words for reuse
+     */
+    public void clear() {
+        size = 0;
+        peakSize = 0;
+    }
+
+    /**
+     * Pushes 'dir' onto the stack, doubling the allocated words when they are full. Requires that
+     * 'dir' is one of the four directions in 'MazeGrid'.
+     */
+    public void push(int dir) {
+        assert 0 <= dir && dir < 4;
+        long word = size >>> 5;
+        if (word == words.size()) {
+            grow();
+        }
+        long shift = (size & 31) << 1;
+        words.set(word, (words.get(word) & ~(3L << shift)) | ((long) dir << shift));
+        size++;
+        if (size > peakSize) {
+            peakSize = size;
+        }
+    }
+
+    /**
+     * Removes and returns the direction on top of the stack. Requires that the stack is not empty.
+     */
+    public int pop() {
+        assert size > 0;
+        size--;
+        return (int) (words.get(size >>> 5) >>> ((size & 31) << 1)) & 3;
+    }
+
+    /**
+     * Moves the stack into a store with twice as many words
+     */
+    private void grow() {
+        WordStore larger = words.allocate(words.size() * 2);
+        for (long i = 0; i < words.size(); i++) {
+            larger.set(i, words.get(i));
+        }
+        words = larger;
+    }
+}
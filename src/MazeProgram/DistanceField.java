@@ -0,0 +1,209 @@
+package MazeProgram;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The number of moves from a start cell to every cell of a maze, found by a breadth-first search
+ * that expands a whole level at a time. Each level's frontier is an array of its cells, and the
+ * levels with enough cells are split into chunks expanded in parallel on a 'ForkJoinPool', each
+ * chunk collecting the cells it reaches for the next level. The frontiers of a maze are narrow,
+ * at most a few times its width, while it has as many levels as cells along its longest path, so
+ * most levels are expanded on the calling thread and only wide ones pay for handing out tasks.
+ * Distances are kept in an 'int' array with an entry per cell, which is also the set of cells
+ * visited, so the field takes 4 bytes per cell.
+ */
+public final class DistanceField {
+
+    /**
+     * The distance of cells that can't be reached from the start
+     */
+    public static final int UNREACHED = -1;
+
+    /**
+     * The fewest cells a level needs to be expanded in parallel
+     */
+    private static final int PARALLEL_FRONTIER = 1 << 12;
+
+    /**
+     * The number of cells of a level expanded by a single task when expanding in parallel
+     */
+    private static final int CHUNK_CELLS = 1 << 10;
+
+    /**
+     * The distance of each cell from the start, or 'UNREACHED'
+     */
+    private final int[] distances;
+
+    /**
+     * The cell the distances are measured from, and one of the cells farthest from it and its
+     * distance
+     */
+    private final int start;
+    private final int farthestCell;
+    private final int maxDistance;
+
+    private DistanceField(int[] distances, int start, int farthestCell, int maxDistance) {
+        this.distances = distances;
+        this.start = start;
+        this.farthestCell = farthestCell;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Returns the distances of every cell of 'grid' from 'start', expanding wide levels on
+     * 'pool'. Cells can only be reached through removed walls, so the distances of a maze still
+     * being carved are those of the cells connected so far. Throws an IllegalArgumentException if
+     * 'grid' has too many cells for an array. Requires that 'grid' and 'pool' are not null and
+     * 'start' is a cell of 'grid'.
+     */
+    public static DistanceField compute(MazeGrid grid, long start, ForkJoinPool pool) {
+        assert grid != null && pool != null;
+        int n = grid.intCellCount();
+        assert 0 <= start && start < n;
+        int[] distances = new int[n];
+        Arrays.fill(distances, UNREACHED);
+        distances[(int) start] = 0;
+        Frontier frontier = new Frontier();
+        Frontier next = new Frontier();
+        frontier.add((int) start);
+        int distance = 0;
+        while (true) {
+            if (frontier.size >= PARALLEL_FRONTIER) {
+                int chunks = (frontier.size + CHUNK_CELLS - 1) / CHUNK_CELLS;
+                Frontier[] parts = new Frontier[chunks];
+                pool.invoke(new ChunkTask(grid, distances, frontier, distance, parts, 0, chunks));
+                for (Frontier part : parts) {
+                    next.addAll(part);
+                }
+            } else {
+                expand(grid, distances, frontier, 0, frontier.size, distance, next);
+            }
+            if (next.size == 0) {
+                return new DistanceField(distances, (int) start, frontier.cells[0], distance);
+            }
+            Frontier swap = frontier;
+            frontier = next;
+            next = swap;
+            next.size = 0;
+            distance++;
+        }
+    }
+
+    /**
+     * Adds the cells not yet reached next to the cells 'from' to 'to' exclusive of 'frontier',
+     * which are 'distance' moves from the start, to 'next'. A cell of a perfect maze is only
+     * next to one cell of the level before it, so chunks expanded in parallel never reach the
+     * same cell.
+     */
+    private static void expand(MazeGrid grid, int[] distances, Frontier frontier, int from,
+                               int to, int distance, Frontier next) {
+        for (int i = from; i < to; i++) {
+            int cell = frontier.cells[i];
+            for (int open = grid.openMask(cell); open != 0; open &= open - 1) {
+                int neighbor = (int) (cell + grid.offset(Integer.numberOfTrailingZeros(open)));
+                if (distances[neighbor] == UNREACHED) {
+                    distances[neighbor] = distance + 1;
+                    next.add(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of moves from the start to 'cell', or 'UNREACHED' if it can't be reached
+     */
+    public int distance(long cell) {
+        return distances[(int) cell];
+    }
+
+    /**
+     * Returns the cell the distances are measured from
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Returns one of the cells farthest from the start. In a perfect maze, the distances from
+     * this cell give the diameter of the maze, the longest path between any two of its cells.
+     */
+    public long farthestCell() {
+        return farthestCell;
+    }
+
+    /**
+     * Returns the largest distance of any cell from the start
+     */
+    public int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * The cells of a level in a growable array
+     */
+    private static final class Frontier {
+
+        private int[] cells = new int[1024];
+        private int size;
+
+        void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        void addAll(Frontier other) {
+            if (size + other.size > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.cells, 0, cells, size, other.size);
+            size += other.size;
+        }
+    }
+
+    /**
+     * Expands the chunks 'firstChunk' to 'lastChunk' exclusive of a level into their entries of
+     * 'parts', splitting them in half while there is more than one
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private final MazeGrid grid;
+        private final int[] distances;
+        private final Frontier frontier;
+        private final int distance;
+        private final Frontier[] parts;
+        private final int firstChunk;
+        private final int lastChunk;
+
+        ChunkTask(MazeGrid grid, int[] distances, Frontier frontier, int distance,
+                  Frontier[] parts, int firstChunk, int lastChunk) {
+            this.grid = grid;
+            this.distances = distances;
+            this.frontier = frontier;
+            this.distance = distance;
+            this.parts = parts;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk > 1) {
+                int middle = (firstChunk + lastChunk) >>> 1;
+                invokeAll(new ChunkTask(grid, distances, frontier, distance, parts, firstChunk,
+                                middle),
+                        new ChunkTask(grid, distances, frontier, distance, parts, middle,
+                                lastChunk));
+            } else {
+                Frontier part = new Frontier();
+                int from = firstChunk * CHUNK_CELLS;
+                expand(grid, distances, frontier, from,
+                        Math.min(from + CHUNK_CELLS, frontier.size), distance, part);
+                parts[firstChunk] = part;
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package MazeProgram;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Eller's algorithim, which carves a maze one row at a time while only remembering which cells
+ * of the current row are connected, so its memory depends on the number of columns but not on the
+ * number of rows. Each row randomly joins neighboring cells that aren't yet connected, then
+ * extends every set of connected cells down into the next row at least once. The last row joins
+ * every set that is left. Sets are tracked with a union-find over labels that are renumbered at
+ * the start of every row, keeping every array at the width of a row.
+ *
+ * Can either carve the rows into a 'MazeGrid', one row per step, or be stepped without a grid
+ * while the caller reads the walls of each finished row, as 'EllerWriter' does to stream mazes
+ * that don't fit in memory.
+ */
+public class Eller implements MazeAlgorithm {
+
+    /**
+     * The grid the rows are carved into, or null when streaming
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * Dimensions of the maze and the number of rows carved so far
+     */
+    private final int rows;
+    private final int cols;
+    private int row;
+
+    /**
+     * The label of the set each cell of the current row belongs to, or -1 for a cell that isn't
+     * connected to the row above
+     */
+    private final int[] labels;
+
+    /**
+     * Union-find over the labels of the current row, each entry is the parent label or itself for
+     * the root of a set
+     */
+    private final int[] parent;
+
+    /**
+     * The new label of each old label while renumbering, the number of cells of each set seen so
+     * far and the cell chosen to extend each set down if no other cell was
+     */
+    private final int[] renumber;
+    private final int[] seen;
+    private final int[] fallback;
+
+    /**
+     * Whether each set of the current row has been extended down
+     */
+    private final boolean[] extended;
+
+    /**
+     * The right and bottom walls of the cells of the last carved row, one bit per column
+     */
+    private final long[] rightWalls;
+    private final long[] bottomWalls;
+
+    /**
+     * Constructs a new 'Eller' that carves 'grid' using 'rand', one row per step. Requires that
+     * 'grid' has every wall intact and 'rand' is not null.
+     */
+    public Eller(MazeGrid grid, SplittableRandom rand) {
+        this(grid, grid.rows(), grid.cols(), rand);
+    }
+
+    /**
+     * Constructs a new 'Eller' that carves a 'rows' by 'cols' maze using 'rand' without storing it
+     * anywhere. After each step, the walls of the row it carved are given by 'hasRightWall' and
+     * 'hasBottomWall'. Requires that 'rows' and 'cols' are positive and 'rand' is not null.
+     */
+    public Eller(int rows, int cols, SplittableRandom rand) {
+        this(null, rows, cols, rand);
+    }
+
+    /**
+     * Constructs a new 'Eller' carving a 'rows' by 'cols' maze into 'grid' if it isn't null
+     */
+    private Eller(MazeGrid grid, int rows, int cols, SplittableRandom rand) {
+        assert rows > 0 && cols > 0 && rand != null;
+        this.grid = grid;
+        this.rand = rand;
+        this.rows = rows;
+        this.cols = cols;
+        this.labels = new int[cols];
+        this.parent = new int[cols];
+        this.renumber = new int[cols];
+        this.seen = new int[cols];
+        this.fallback = new int[cols];
+        this.extended = new boolean[cols];
+        this.rightWalls = new long[(cols + 63) >>> 6];
+        this.bottomWalls = new long[(cols + 63) >>> 6];
+        Arrays.fill(labels, -1);
+    }
+
+    /**
+     * Returns the number of cells carved, a row of them per step
+     */
+    @Override
+    public long cellsVisited() {
+        return (long) row * cols;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return row == rows;
+    }
+
+    /**
+     * Returns the number of rows carved so far
+     */
+    public int rowsCarved() {
+        return row;
+    }
+
+    /**
+     * Returns whether the cell at 'col' of the last carved row has a right wall. Requires that at
+     * least one row has been carved.
+     */
+    public boolean hasRightWall(int col) {
+        assert row > 0;
+        return (rightWalls[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Returns whether the cell at 'col' of the last carved row has a bottom wall. Requires that at
+     * least one row has been carved.
+     */
+    public boolean hasBottomWall(int col) {
+        assert row > 0;
+        return (bottomWalls[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Carves the next row of the maze. Returns whether there are rows left to carve.
+     */
+    @Override
+    public boolean step() {
+        if (row == rows) {
+            return false;
+        }
+        boolean lastRow = row == rows - 1;
+        Arrays.fill(rightWalls, -1L);
+        Arrays.fill(bottomWalls, -1L);
+        renumberLabels();
+
+        // join neighboring cells that aren't connected yet, all of them in the last row
+        for (int col = 0; col < cols - 1; col++) {
+            int a = find(labels[col]);
+            int b = find(labels[col + 1]);
+            if (a != b && (lastRow || rand.nextBoolean())) {
+                parent[b] = a;
+                rightWalls[col >>> 6] &= ~(1L << col);
+            }
+        }
+
+        if (!lastRow) {
+            extendDown();
+        }
+
+        if (grid != null) {
+            for (int col = 0; col < cols; col++) {
+                long cell = grid.index(row, col);
+                if ((rightWalls[col >>> 6] & (1L << col)) == 0) {
+                    grid.removeWall(cell, MazeGrid.RIGHT);
+                }
+                if (!hasBottomWallOf(col)) {
+                    grid.removeWall(cell, MazeGrid.BOTTOM);
+                }
+            }
+        }
+        row++;
+        return row != rows;
+    }
+
+    /**
+     * Returns whether the cell at 'col' of the row being carved keeps its bottom wall
+     */
+    private boolean hasBottomWallOf(int col) {
+        return (bottomWalls[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Renumbers the sets carried down from the last row to labels 0 and up, and gives every cell
+     * that wasn't carried down a set of its own. Afterwards every label is a root of 'parent'.
+     */
+    private void renumberLabels() {
+        Arrays.fill(renumber, -1);
+        int next = 0;
+        for (int col = 0; col < cols; col++) {
+            int old = labels[col];
+            int label;
+            if (old == -1) {
+                label = next++;
+            } else {
+                if (renumber[old] == -1) {
+                    renumber[old] = next++;
+                }
+                label = renumber[old];
+            }
+            labels[col] = label;
+            parent[label] = label;
+        }
+    }
+
+    /**
+     * Randomly extends cells down into the next row, making sure every set is extended at least
+     * once, and labels the cells of the next row with the set they were extended from
+     */
+    private void extendDown() {
+        Arrays.fill(seen, 0);
+        Arrays.fill(extended, false);
+        for (int col = 0; col < cols; col++) {
+            int set = find(labels[col]);
+            labels[col] = set;
+            seen[set]++;
+            if (rand.nextInt(seen[set]) == 0) {
+                fallback[set] = col; // a uniformly random cell of the set
+            }
+            if (rand.nextBoolean()) {
+                extended[set] = true;
+                bottomWalls[col >>> 6] &= ~(1L << col);
+            }
+        }
+        for (int col = 0; col < cols; col++) {
+            int set = labels[col];
+            if (!extended[set]) {
+                extended[set] = true;
+                bottomWalls[fallback[set] >>> 6] &= ~(1L << fallback[set]);
+            }
+        }
+        for (int col = 0; col < cols; col++) {
+            if (hasBottomWallOf(col)) {
+                labels[col] = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the root of the set holding 'label', halving the path to it along the way
+     */
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+}
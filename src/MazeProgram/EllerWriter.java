@@ -0,0 +1,108 @@
+package MazeProgram;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Streams mazes generated with Eller's algorithim in 'MazeFormat', writing every row as soon as
+ * it is carved. Only a row's worth of state and a small output buffer are kept in memory, no
+ * matter how many rows the maze has, so mazes far larger than memory can be written straight to
+ * disk or piped into another process. The output is the same as saving a maze generated with
+ * 'Algorithm.ELLER' and the same seed.
+ */
+public final class EllerWriter {
+
+    /**
+     * The size of the output buffer in bytes, a whole number of words
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private EllerWriter() {
+    }
+
+    /**
+     * Writes a 'rows' by 'cols' maze generated from 'seed' to 'out'. Requires that 'rows' and
+     * 'cols' are positive and 'out' is not null.
+     */
+    public static void write(WritableByteChannel out, int rows, int cols, long seed)
+            throws IOException {
+        assert out != null;
+        writeFully(out, MazeFormat.header(rows, cols, seed, Algorithm.ELLER));
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        Eller eller = new Eller(rows, cols, new SplittableRandom(seed));
+        long word = 0;
+        int shift = 0; // position of the next cell's bits in 'word'
+        while (!eller.isComplete()) {
+            eller.step();
+            for (int col = 0; col < cols; col++) {
+                long bits = (eller.hasRightWall(col) ? 1L : 0L)
+                        | (eller.hasBottomWall(col) ? 2L : 0L);
+                word |= bits << shift;
+                shift += 2;
+                if (shift == 64) {
+                    buffer.putLong(word);
+                    word = 0;
+                    shift = 0;
+                    if (!buffer.hasRemaining()) {
+                        writeFully(out, buffer.flip());
+                        buffer.clear();
+                    }
+                }
+            }
+        }
+        if (shift != 0) {
+            buffer.putLong(word | (-1L << shift)); // bits past the last cell are set
+        }
+        writeFully(out, buffer.flip());
+    }
+
+    /**
+     * Writes a 'rows' by 'cols' maze generated from 'seed' to 'out', without closing it
+     */
+    public static void write(OutputStream out, int rows, int cols, long seed) throws IOException {
+        write(Channels.newChannel(out), rows, cols, seed);
+        out.flush();
+    }
+
+    /**
+     * Writes all of 'buffer' to 'out'
+     */
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Streams a maze from the command line: 'EllerWriter rows cols seed [file]'. Without a file
+     * the maze is written to standard output so it can be piped into another process.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: EllerWriter rows cols seed [file]");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        if (args.length > 3) {
+            try (FileChannel channel = FileChannel.open(Path.of(args[3]),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                write(channel, rows, cols, seed);
+            }
+        } else {
+            write(new BufferedOutputStream(System.out, BUFFER_BYTES), rows, cols, seed);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package MazeProgram;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the generation of one maze by 'MazeGenerator', from the moment its worker
+ * starts carving until the maze is complete or its generation is stopped, so that recordings can
+ * line generations up against garbage collections and other JVM activity
+ */
+@Name("MazeProgram.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+@Description("Generation of a maze from its seed")
+public class GenerationEvent extends jdk.jfr.Event {
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Columns")
+    int cols;
+
+    @Label("Algorithim")
+    String algorithm;
+
+    @Label("Seed")
+    long seed;
+
+    @Label("Animated")
+    boolean animated;
+
+    @Label("Steps")
+    long steps;
+
+    @Label("Cells Visited")
+    long cellsVisited;
+
+    @Label("Completed")
+    boolean completed;
+}
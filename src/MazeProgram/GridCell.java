@@ -1,19 +1,60 @@
 package MazeProgram;
 
-import MazeProgram.MazeGUI.Cell;
-import java.util.ArrayList;
 import javax.swing.JPanel;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 /**
- * The graphical component of the maze grid
+ * The graphical component of the maze grid, which can be zoomed with the mouse wheel and panned by
+ * dragging. Only the cells inside the visible area are drawn, into an offscreen image the size of
+ * the component that is copied to the screen on every paint. As walls are removed only the cells
+ * around them are redrawn, so neither animating a step nor repainting depends on the size of the
+ * grid. The pixels are written by a 'MazeRenderer', which sets each pixel from the walls of the
+ * single cell under it once cells are zoomed out too small to draw their walls as lines. The
+ * cells may be filled with a heatmap of their distances from a cell.
  */
-public class GridCell extends JPanel {
+public class GridCell extends JPanel implements WallListener {
 
     /**
-     * The list of cell objects
+     * The maze grid being drawn
      */
-    private ArrayList<Cell> cells;
+    private MazeGrid grid;
+
+    /**
+     * The position of the grid's top left corner on the window and the width of the square area
+     * the grid is fit into when it is first shown
+     */
+    private final int xOffset;
+    private final int yOffset;
+    private final int mazeWidth;
+
+    /**
+     * The number of pixels per cell and the position of the grid's top left corner on the
+     * component, as changed by zooming and panning
+     */
+    private double scale;
+    private double viewX;
+    private double viewY;
+
+    /**
+     * The mouse position the current drag last moved the view to
+     */
+    private int dragX;
+    private int dragY;
+
+    /**
+     * The most pixels a cell may be zoomed to
+     */
+    private static final double MAX_SCALE = 64;
+
+    /**
+     * The fewest pixels the whole grid may be zoomed out to
+     */
+    private static final int MIN_GRID_SIZE = 32;
 
     /**
      * The color of each cell
@@ -21,19 +62,100 @@ public class GridCell extends JPanel {
     private Color color;
 
     /**
-     * Constructs a new 'GridCell' object
+     * The visible part of the grid as it currently is, and whether it must be drawn again in full
+     * before it is next shown
      */
-    public GridCell(ArrayList<Cell> cells, Color color) {
-        this.cells = cells;
+    private BufferedImage image;
+    private boolean stale;
+
+    /**
+     * Draws the grid into the image with the current view and colors, replaced whenever the whole
+     * image is drawn again
+     */
+    private MazeRenderer renderer;
+
+    /**
+     * The color behind the walls
+     */
+    private static final Color BACKGROUND_COLOR = Color.BLACK;
+
+    /**
+     * The solution drawn over the maze, or null if there is none
+     */
+    private MazePath path;
+
+    /**
+     * The distances shown as a heatmap behind the walls, or null if there is none
+     */
+    private DistanceField distances;
+
+    /**
+     * The color of the solution
+     */
+    private static final Color PATH_COLOR = Color.WHITE;
+
+    /**
+     * Records the time taken by every paint, or null
+     */
+    private MazeMetrics metrics;
+
+    /**
+     * Shows the metrics over the top left corner of the grid, or null if there are no metrics
+     */
+    private MetricsOverlay overlay;
+
+    /**
+     * Constructs a new 'GridCell' object drawing 'grid' with its top left corner at 'xOffset' and
+     * 'yOffset', fit into a square 'mazeWidth' pixels wide
+     */
+    public GridCell(MazeGrid grid, int xOffset, int yOffset, int mazeWidth, Color color) {
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        this.mazeWidth = mazeWidth;
         this.color = color;
+        setBackground(BACKGROUND_COLOR);
+        updateGrid(grid);
+
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragX = e.getX();
+                dragY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(e.getX() - dragX, e.getY() - dragY);
+                dragX = e.getX();
+                dragY = e.getY();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), e.getY(), Math.pow(2, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
     }
 
     /**
-     * Updates the reference to the cell list. Requires 'newCells' is not null.
+     * Updates the reference to the maze grid, resizing the cells to fit it and resetting the view.
+     * Requires 'newGrid' is not null.
      */
-    public void updateCells(ArrayList<Cell> newCells) {
-        assert newCells != null;
-        this.cells = newCells;
+    public void updateGrid(MazeGrid newGrid) {
+        assert newGrid != null;
+        this.grid = newGrid;
+        this.path = null;
+        this.distances = null;
+        this.scale = (double) mazeWidth / Math.max(newGrid.rows(), newGrid.cols());
+        if (scale >= 1) {
+            scale = Math.floor(scale);
+        }
+        this.viewX = xOffset;
+        this.viewY = yOffset;
+        redraw();
     }
 
     /**
@@ -42,28 +164,233 @@ public class GridCell extends JPanel {
     public void updateColor(Color newColor) {
         assert newColor != null;
         this.color = newColor;
+        redraw();
+    }
+
+    /**
+     * Returns the color of each cell
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Updates the solution drawn over the maze to 'newPath', or removes it if 'newPath' is null
+     */
+    public void updatePath(MazePath newPath) {
+        this.path = newPath;
+    }
+
+    /**
+     * Updates the distances shown as a heatmap to 'newDistances', computed on the grid being
+     * drawn, or removes the heatmap if 'newDistances' is null
+     */
+    public void updateHeatmap(DistanceField newDistances) {
+        this.distances = newDistances;
+        redraw();
+    }
+
+    /**
+     * Returns the distances shown as a heatmap, or null if there is none
+     */
+    public DistanceField getHeatmap() {
+        return distances;
+    }
+
+    /**
+     * Sets the metrics recording every paint from now on to 'newMetrics', which the overlay shown
+     * by 'showMetrics' displays. Requires that 'newMetrics' is not null.
+     */
+    public void setMetrics(MazeMetrics newMetrics) {
+        assert newMetrics != null;
+        if (overlay != null) {
+            remove(overlay);
+        }
+        this.metrics = newMetrics;
+        this.overlay = new MetricsOverlay(newMetrics);
+        setLayout(new FlowLayout(FlowLayout.LEFT));
+        add(overlay);
+        revalidate();
+    }
+
+    /**
+     * Shows the metrics over the grid if 'show' is true and hides them otherwise. Does nothing if
+     * no metrics were set.
+     */
+    public void showMetrics(boolean show) {
+        if (overlay != null) {
+            overlay.setVisible(show);
+            revalidate();
+        }
+    }
+
+    /**
+     * Moves the view of the grid by 'dx', 'dy' pixels
+     */
+    public void pan(int dx, int dy) {
+        viewX += dx;
+        viewY += dy;
+        redraw();
+    }
+
+    /**
+     * Multiplies the size of the cells by 'factor', keeping the point of the grid under 'x', 'y'
+     * in place. The size is kept between showing the whole grid in 'MIN_GRID_SIZE' pixels and
+     * 'MAX_SCALE' pixels per cell.
+     */
+    public void zoom(int x, int y, double factor) {
+        double minScale = Math.min(scale, (double) MIN_GRID_SIZE / Math.max(grid.rows(),
+                grid.cols()));
+        double size = cellSize();
+        double gridX = (x - viewX) / size;
+        double gridY = (y - viewY) / size;
+        scale = Math.max(minScale, Math.min(MAX_SCALE, scale * factor));
+        viewX = x - gridX * cellSize();
+        viewY = y - gridY * cellSize();
+        redraw();
+    }
+
+    /**
+     * Redraws the two cells on either side of the removed wall into the image and repaints only
+     * the area they cover. Removals from grids other than the one being drawn are ignored.
+     */
+    @Override
+    public void wallRemoved(MazeGrid changedGrid, long cell, int dir) {
+        if (changedGrid != grid || image == null || stale) {
+            return;
+        }
+        int row = grid.row(cell);
+        int col = grid.col(cell);
+        // the neighbor lies after the cell for right and bottom walls and before it otherwise
+        int neighborRow = dir == MazeGrid.TOP ? row - 1 : dir == MazeGrid.BOTTOM ? row + 1 : row;
+        int neighborCol = dir == MazeGrid.LEFT ? col - 1 : dir == MazeGrid.RIGHT ? col + 1 : col;
+        Rectangle area = cellBounds(Math.min(row, neighborRow), Math.min(col, neighborCol),
+                Math.max(row, neighborRow), Math.max(col, neighborCol));
+        if (!area.isEmpty()) {
+            render(area, false);
+            repaint(area);
+        }
+    }
+
+    /**
+     * Redraws every wall of 'changedGrid' if it is the grid being drawn, for after it changed
+     * without notifying this component
+     */
+    public void redraw(MazeGrid changedGrid) {
+        if (changedGrid == grid) {
+            redraw();
+        }
     }
 
     @Override
     public void paintComponent(Graphics g) {
-        for (Cell cell : cells) {
-            boolean[] walls = cell.walls();
-            int x = cell.xPos();
-            int y = cell.yPos();
-            int w = cell.cellWidth();
-            g.setColor(color);
-            if (walls[0]) {
-                g.drawLine(x, y, x + w, y); // top
-            }
-            if (walls[1]) {
-                g.drawLine(x + w, y, x + w, y + w); // right
-            }
-            if (walls[2]) {
-                g.drawLine(x + w, y + w, x, y + w); // bottom
+        super.paintComponent(g);
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (image == null || image.getWidth() != getWidth() || image.getHeight() != getHeight()) {
+            image = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+            stale = true;
+        }
+        boolean fullRedraw = stale;
+        if (stale) {
+            renderer = new MazeRenderer(grid, viewX, viewY, scale, color, BACKGROUND_COLOR,
+                    distances);
+            render(new Rectangle(0, 0, image.getWidth(), image.getHeight()), true);
+            stale = false;
+        }
+        g.drawImage(image, 0, 0, null);
+        if (path != null) {
+            paintPath(g);
+        }
+        if (metrics != null) {
+            metrics.painted(System.nanoTime() - start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.width = getWidth();
+            event.height = getHeight();
+            event.fullRedraw = fullRedraw;
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks the whole image to be drawn again before it is next shown and repaints the component
+     */
+    private void redraw() {
+        stale = true;
+        repaint();
+    }
+
+    /**
+     * Returns the number of pixels per cell used to place the cells, which is a whole number when
+     * walls are drawn as lines
+     */
+    private double cellSize() {
+        return MazeRenderer.drawsLines(scale) ? Math.floor(scale) : scale;
+    }
+
+    /**
+     * Returns the area of the image covered by the cells from 'firstRow', 'firstCol' to
+     * 'lastRow', 'lastCol' inclusive and their walls, which is empty if none of them are visible
+     */
+    private Rectangle cellBounds(int firstRow, int firstCol, int lastRow, int lastCol) {
+        double size = cellSize();
+        long left = (long) Math.floor(viewX + firstCol * size);
+        long top = (long) Math.floor(viewY + firstRow * size);
+        long right = (long) Math.floor(viewX + (lastCol + 1) * size) + 1;
+        long bottom = (long) Math.floor(viewY + (lastRow + 1) * size) + 1;
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(image.getWidth(), right);
+        bottom = Math.min(image.getHeight(), bottom);
+        if (left >= right || top >= bottom) {
+            return new Rectangle();
+        }
+        return new Rectangle((int) left, (int) top, (int) (right - left), (int) (bottom - top));
+    }
+
+    /**
+     * Draws the part of the grid inside 'area' of the image, in parallel bands if 'parallel' is
+     * true
+     */
+    private void render(Rectangle area, boolean parallel) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        renderer.render(pixels, image.getWidth(), area, parallel);
+    }
+
+    /**
+     * Draws the solution as a line through the centers of the cells along it, skipping the parts
+     * outside the visible area. Consecutive moves in the same direction are drawn as one line, so
+     * long straight corridors take a single 'drawLine'.
+     */
+    private void paintPath(Graphics g) {
+        double size = cellSize();
+        Rectangle visible = g.getClipBounds();
+        if (visible == null) {
+            visible = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(PATH_COLOR);
+        long cell = path.start();
+        int x = (int) (viewX + (grid.col(cell) + 0.5) * size);
+        int y = (int) (viewY + (grid.row(cell) + 0.5) * size);
+        for (int i = 0; i < path.length(); i++) {
+            int move = path.move(i);
+            cell += grid.offset(move);
+            if (i + 1 < path.length() && path.move(i + 1) == move) {
+                continue; // the line goes on straight
             }
-            if (walls[3]) {
-                g.drawLine(x, y + w, x, y); // left
+            int nextX = (int) (viewX + (grid.col(cell) + 0.5) * size);
+            int nextY = (int) (viewY + (grid.row(cell) + 0.5) * size);
+            if (visible.intersectsLine(x, y, nextX, nextY)) {
+                g.drawLine(x, y, nextX, nextY);
             }
+            x = nextX;
+            y = nextY;
         }
     }
 }
@@ -0,0 +1,181 @@
+package MazeProgram;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * The growing tree algorithim. A list of active cells starts with a random cell. Every step
+ * chooses an active cell and carves to a random unvisited neighbor of it, which becomes active,
+ * or deactivates it if it has none. Choosing the newest cell behaves like the recursive
+ * backtracker and choosing a random one like Prim's algorithim; mixing the two gives textures in
+ * between. The active cells are an 'int[]' in the order they were activated. Deactivated cells
+ * are marked rather than removed, random choices skip over the marks, and the array is compacted
+ * once half of it is marked, so choosing and deactivating take constant time on average while the
+ * newest cell stays last.
+ */
+public class GrowingTree implements MazeAlgorithm {
+
+    /**
+     * The chance of choosing the newest active cell used when none is given
+     */
+    public static final double DEFAULT_NEWEST_CHANCE = 0.5;
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The chance of choosing the newest active cell rather than a random one
+     */
+    private final double newestChance;
+
+    /**
+     * Marks the entries of 'active' holding a cell that has been deactivated
+     */
+    private static final int INACTIVE = -1;
+
+    /**
+     * The active cells in the order they were activated, the newest last, with 'INACTIVE' in
+     * place of the cells deactivated since the last compaction. The last entry, if any, is never
+     * 'INACTIVE'.
+     */
+    private final int[] active;
+    private int activeSize;
+    private int inactiveCount;
+
+    /**
+     * The cells that have been visited
+     */
+    private final BitSet visited;
+
+    /**
+     * The number of cells chosen to carve from, counting a cell again every time it is chosen
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'GrowingTree' that carves 'grid' using 'rand', choosing the newest active
+     * cell with probability 'newestChance'. Requires that 'grid' has every wall intact, 'rand' is
+     * not null and 0 <= 'newestChance' <= 1.
+     */
+    public GrowingTree(MazeGrid grid, SplittableRandom rand, double newestChance) {
+        assert grid != null && rand != null;
+        assert 0 <= newestChance && newestChance <= 1;
+        int n = grid.intCellCount();
+        this.grid = grid;
+        this.rand = rand;
+        this.newestChance = newestChance;
+        this.active = new int[n];
+        this.visited = new BitSet(n);
+        start();
+    }
+
+    /**
+     * Starts over on 'newGrid', clearing the visited set in place. Returns false if 'newGrid'
+     * doesn't have the same dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        visited.clear();
+        activeSize = 0;
+        inactiveCount = 0;
+        visits = 0;
+        start();
+        return true;
+    }
+
+    /**
+     * Activates a random cell, requiring an empty visited set and list of active cells
+     */
+    private void start() {
+        int srcCell = rand.nextInt(active.length);
+        visited.set(srcCell);
+        active[activeSize++] = srcCell;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return activeSize == 0;
+    }
+
+    /**
+     * Carves from a chosen active cell to one of its unvisited neighbors, or deactivates the cell
+     * if it has none. Returns whether there are steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (activeSize == 0) {
+            return false;
+        }
+        int i = activeSize - 1;
+        if (rand.nextDouble() >= newestChance) {
+            do {
+                i = rand.nextInt(activeSize);
+            } while (active[i] == INACTIVE);
+        }
+        int cell = active[i];
+        visits++;
+
+        int mask = 0;
+        int neighbors = grid.neighborMask(cell);
+        for (int dir = MazeGrid.TOP; dir <= MazeGrid.LEFT; dir++) {
+            if ((neighbors & (1 << dir)) != 0 && !visited.get((int) (cell + grid.offset(dir)))) {
+                mask |= 1 << dir;
+            }
+        }
+        if (mask != 0) {
+            int dir = MazeAlgorithm.randomDirection(mask, rand);
+            int neighbor = (int) (cell + grid.offset(dir));
+            grid.removeWall(cell, dir);
+            visited.set(neighbor);
+            active[activeSize++] = neighbor;
+        } else {
+            deactivate(i);
+        }
+        return activeSize > 0;
+    }
+
+    /**
+     * Deactivates the cell at 'i' in 'active', dropping it and any marks before it if it is last
+     * and otherwise marking it, and compacts 'active' once at least half of it is marked
+     */
+    private void deactivate(int i) {
+        if (i == activeSize - 1) {
+            activeSize--;
+            while (activeSize > 0 && active[activeSize - 1] == INACTIVE) {
+                activeSize--;
+                inactiveCount--;
+            }
+            return;
+        }
+        active[i] = INACTIVE;
+        inactiveCount++;
+        if (inactiveCount * 2 >= activeSize) {
+            int kept = 0;
+            for (int j = 0; j < activeSize; j++) {
+                if (active[j] != INACTIVE) {
+                    active[kept++] = active[j];
+                }
+            }
+            activeSize = kept;
+            inactiveCount = 0;
+        }
+    }
+}
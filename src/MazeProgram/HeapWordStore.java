@@ -0,0 +1,60 @@
+package MazeProgram;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A 'WordStore' backed by a 'long[]' on the Java heap
+ */
+public final class HeapWordStore implements WordStore {
+
+    /**
+     * Handle used for atomic updates of the words
+     */
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The words of the store
+     */
+    private final long[] words;
+
+    /**
+     * Constructs a new store of 'words' zeroed words. Requires that 0 <= 'words' <=
+     * Integer.MAX_VALUE - 8.
+     */
+    public HeapWordStore(long words) {
+        assert 0 <= words && words <= Integer.MAX_VALUE - 8;
+        this.words = new long[(int) words];
+    }
+
+    @Override
+    public long size() {
+        return words.length;
+    }
+
+    @Override
+    public long get(long index) {
+        return words[(int) index];
+    }
+
+    @Override
+    public void set(long index, long value) {
+        words[(int) index] = value;
+    }
+
+    @Override
+    public void clearBitsAtomically(long index, long bits) {
+        WORDS.getAndBitwiseAnd(words, (int) index, ~bits);
+    }
+
+    @Override
+    public void fill(long value) {
+        Arrays.fill(words, value);
+    }
+
+    @Override
+    public WordStore allocate(long words) {
+        return new HeapWordStore(words);
+    }
+}
@@ -0,0 +1,172 @@
+package MazeProgram;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Kruskal's algorithim. Every interior wall of the grid is considered once in random order, and
+ * removed if the cells on either side of it are not yet connected. Which cells are connected is
+ * tracked with a union-find over an 'int[]' using path halving and union by size, so the
+ * algorithim never allocates after construction. The walls are shuffled as they are drawn rather
+ * than up front, so the first step is as cheap as the rest.
+ */
+public class Kruskal implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The interior walls of the grid, each given as '2 * cell' for the right wall of 'cell' or '2
+     * * cell + 1' for its bottom wall. The walls before 'next' have been drawn.
+     */
+    private final int[] walls;
+    private int next;
+
+    /**
+     * The union-find over the cells. A negative entry marks the root of a set of that many cells,
+     * any other entry is the index of the cell's parent.
+     */
+    private final int[] parent;
+
+    /**
+     * The number of walls that still need to be removed to connect every cell
+     */
+    private long remaining;
+
+    /**
+     * The number of cells on either side of the walls drawn, two per wall
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'Kruskal' that carves 'grid' using 'rand'. Requires that 'grid' has every
+     * wall intact, at most 2^30 cells, and 'rand' is not null.
+     */
+    public Kruskal(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        int n = grid.intCellCount();
+        if (n > 1 << 30) {
+            throw new IllegalArgumentException("Grid is too large for Kruskal's algorithim");
+        }
+        this.grid = grid;
+        this.rand = rand;
+        this.parent = new int[n];
+        this.walls = new int[grid.rows() * (grid.cols() - 1) + (grid.rows() - 1) * grid.cols()];
+        start();
+    }
+
+    /**
+     * Starts over on 'newGrid', refilling the union-find and the list of walls in place. Returns
+     * false if 'newGrid' doesn't have the same dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        start();
+        return true;
+    }
+
+    /**
+     * Makes every cell its own set and lists every interior wall as not yet drawn, in the same
+     * order every time so that the walls drawn only depend on 'rand'
+     */
+    private void start() {
+        int n = parent.length;
+        Arrays.fill(parent, -1);
+        this.remaining = n - 1;
+        this.next = 0;
+        this.visits = 0;
+
+        int cols = grid.cols();
+        int count = 0;
+        for (int cell = 0; cell < n; cell++) {
+            if (cell % cols != cols - 1) {
+                walls[count++] = cell << 1; // right
+            }
+            if (cell < n - cols) {
+                walls[count++] = (cell << 1) | 1; // bottom
+            }
+        }
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return remaining == 0;
+    }
+
+    /**
+     * Draws random walls until one separates two unconnected cells, removes it and joins the
+     * cells. Returns whether there are steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        while (remaining > 0 && next < walls.length) {
+            // draw the next wall of a Fisher-Yates shuffle
+            int chosen = next + rand.nextInt(walls.length - next);
+            int wall = walls[chosen];
+            walls[chosen] = walls[next];
+            walls[next++] = wall;
+            visits += 2;
+
+            int cell = wall >>> 1;
+            int dir = (wall & 1) == 0 ? MazeGrid.RIGHT : MazeGrid.BOTTOM;
+            if (union(cell, (int) (cell + grid.offset(dir)))) {
+                grid.removeWall(cell, dir);
+                remaining--;
+                break;
+            }
+        }
+        return remaining > 0;
+    }
+
+    /**
+     * Returns the root of the set holding 'cell', halving the path to it along the way
+     */
+    private int find(int cell) {
+        while (parent[cell] >= 0) {
+            int up = parent[cell];
+            if (parent[up] >= 0) {
+                parent[cell] = parent[up];
+            }
+            cell = up;
+        }
+        return cell;
+    }
+
+    /**
+     * Joins the sets holding 'a' and 'b', attaching the smaller one to the larger. Returns whether
+     * they were separate sets.
+     */
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (parent[rootA] > parent[rootB]) { // sizes are negative, so 'rootA' is smaller
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootA] += parent[rootB];
+        parent[rootB] = rootA;
+        return true;
+    }
+}
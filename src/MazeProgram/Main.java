@@ -1,10 +1,29 @@
 package MazeProgram;
+import java.io.IOException;
+import java.util.Arrays;
 import javax.swing.*;
 
 
 public class Main {
 
-    public static void main(String[] args){
+    /**
+     * Opens the maze window, or without it generates a batch of mazes when the first argument is
+     * 'batch' or exports a saved maze as an image when it is 'png' or 'svg', passing the rest on
+     * to 'MazeBatch', 'PngWriter' or 'SvgWriter'
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("batch")) {
+            MazeBatch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("png")) {
+            PngWriter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("svg")) {
+            SvgWriter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SwingUtilities.invokeLater(MazeGUI::new);
     }
 
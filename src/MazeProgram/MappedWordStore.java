@@ -0,0 +1,139 @@
+package MazeProgram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A 'WordStore' backed by a memory-mapped file, so its size is limited by disk and address space
+ * rather than by the Java heap and the garbage collector never has to scan it. A single mapping
+ * can't exceed 2 GB, so the file is mapped in chunks of 2^27 words (1 GB) each. Words are stored in
+ * little-endian order.
+ */
+public final class MappedWordStore implements WordStore {
+
+    /**
+     * The number of words in each mapped chunk, as a power of two
+     */
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    /**
+     * Handle used to access the words of the chunks, including atomic updates
+     */
+    private static final VarHandle WORDS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The mapped chunks of the file
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * The number of words in the store
+     */
+    private final long size;
+
+    /**
+     * The directory new stores made by 'allocate' are placed in
+     */
+    private final Path directory;
+
+    /**
+     * Constructs a new store over the chunks of a mapped file
+     */
+    private MappedWordStore(MappedByteBuffer[] chunks, long size, Path directory) {
+        this.chunks = chunks;
+        this.size = size;
+        this.directory = directory;
+    }
+
+    /**
+     * Creates or truncates 'file' to hold 'words' words and returns a store mapped over it, every
+     * word starting out as zero. The mapping stays valid after this returns, no file handles are
+     * kept open. Requires that 'words' is not negative.
+     */
+    public static MappedWordStore create(Path file, long words) throws IOException {
+        assert words >= 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return map(channel, 0, words, FileChannel.MapMode.READ_WRITE,
+                    file.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Maps 'words' words of 'channel' starting at byte 'position' with 'mode', growing the file if
+     * it is too short. New stores made by 'allocate' are placed in 'directory'.
+     */
+    static MappedWordStore map(FileChannel channel, long position, long words,
+                               FileChannel.MapMode mode, Path directory) throws IOException {
+        int chunkCount = (int) ((words + CHUNK_MASK) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long first = (long) i << CHUNK_SHIFT;
+            long length = Math.min(words - first, 1L << CHUNK_SHIFT);
+            chunks[i] = channel.map(mode, position + first * Long.BYTES, length * Long.BYTES);
+        }
+        return new MappedWordStore(chunks, words, directory);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long get(long index) {
+        return (long) WORDS.get(chunks[(int) (index >>> CHUNK_SHIFT)],
+                (int) (index & CHUNK_MASK) << 3);
+    }
+
+    @Override
+    public void set(long index, long value) {
+        WORDS.set(chunks[(int) (index >>> CHUNK_SHIFT)], (int) (index & CHUNK_MASK) << 3, value);
+    }
+
+    @Override
+    public void clearBitsAtomically(long index, long bits) {
+        WORDS.getAndBitwiseAnd(chunks[(int) (index >>> CHUNK_SHIFT)],
+                (int) (index & CHUNK_MASK) << 3, ~bits);
+    }
+
+    @Override
+    public void fill(long value) {
+        for (MappedByteBuffer chunk : chunks) {
+            for (int i = 0, n = chunk.limit(); i < n; i += Long.BYTES) {
+                WORDS.set(chunk, i, value);
+            }
+        }
+    }
+
+    /**
+     * Returns a new store mapped over a temporary file in the same directory as this one. The file
+     * is deleted straight away, its mapping keeps the storage alive until it is garbage collected.
+     */
+    @Override
+    public WordStore allocate(long words) {
+        try {
+            Path file = Files.createTempFile(directory, "maze", ".tmp");
+            MappedWordStore store = create(file, words);
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit(); // some platforms can't delete a mapped file
+            }
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package MazeProgram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Record class for a generated maze. 'grid' holds its walls, and 'seed' and 'algorithm' are what
+ * it was generated with, so generating again with the same values gives the same maze.
+ * 'statistics' were accumulated while it was carved, or are null if they weren't, such as for
+ * mazes read from files or carved in parallel. Has no dependency on java.awt or javax.swing so
+ * mazes can be generated in headless JVMs.
+ */
+public record Maze(MazeGrid grid, long seed, Algorithm algorithm, MazeStatistics statistics) {
+
+    /**
+     * Constructs a new maze without statistics
+     */
+    public Maze(MazeGrid grid, long seed, Algorithm algorithm) {
+        this(grid, seed, algorithm, null);
+    }
+
+    /**
+     * Generates and returns a new maze of 'rows' by 'cols' cells with 'algorithm', drawing every
+     * random choice from 'seed', without statistics. Requires that 'rows' and 'cols' are positive
+     * and 'algorithm' is not null.
+     */
+    public static Maze generate(int rows, int cols, long seed, Algorithm algorithm) {
+        return generate(new MazeGrid(rows, cols), seed, algorithm, false);
+    }
+
+    /**
+     * Generates and returns a new maze like 'generate(rows, cols, seed, algorithm)', accumulating
+     * its statistics while it is carved if 'collectStatistics' is true and it isn't carved in
+     * parallel. Counting the open walls of the cells each removal joins adds about a fifth to the
+     * time taken to carve; the corridors are only walked when first asked for.
+     */
+    public static Maze generate(int rows, int cols, long seed, Algorithm algorithm,
+                                boolean collectStatistics) {
+        return generate(new MazeGrid(rows, cols), seed, algorithm, collectStatistics);
+    }
+
+    /**
+     * Generates and returns a new maze like 'generate(rows, cols, seed, algorithm)', but with its
+     * walls stored off the Java heap in 'wallFile', which is created or overwritten. The working
+     * memory of the algorithim is kept in deleted temporary files next to it, so the size of the
+     * maze is limited by disk space rather than heap.
+     */
+    public static Maze generate(int rows, int cols, long seed, Algorithm algorithm, Path wallFile)
+            throws IOException {
+        WordStore walls = MappedWordStore.create(wallFile, MazeGrid.wordCount(rows, cols));
+        return generate(new MazeGrid(rows, cols, walls), seed, algorithm, false);
+    }
+
+    /**
+     * Carves 'grid' with 'algorithm' and 'seed' and returns it as a maze, with its statistics if
+     * 'collectStatistics' is true and it wasn't carved in parallel
+     */
+    private static Maze generate(MazeGrid grid, long seed, Algorithm algorithm,
+                                 boolean collectStatistics) {
+        assert algorithm != null;
+        MazeAlgorithm generation = algorithm.create(grid, seed);
+        if (!collectStatistics || algorithm == Algorithm.TILED_BACKTRACKER) {
+            generation.run();
+            return new Maze(grid, seed, algorithm);
+        }
+        MazeStatistics statistics = new MazeStatistics(grid);
+        grid.setWallListener(statistics);
+        generation.run();
+        grid.setWallListener(null);
+        statistics.finish(generation);
+        return new Maze(grid, seed, algorithm, statistics);
+    }
+}
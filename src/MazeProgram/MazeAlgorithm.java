@@ -0,0 +1,71 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+
+/**
+ * A maze generation algorithim carving a 'MazeGrid' into a perfect maze. Runs either all at once
+ * or one step at a time, so that callers can animate it.
+ */
+public interface MazeAlgorithm {
+
+    /**
+     * Performs a single step of the algorithim, removing at most a few walls. Returns whether
+     * there are steps left to perform.
+     */
+    boolean step();
+
+    /**
+     * Returns whether the maze is complete
+     */
+    boolean isComplete();
+
+    /**
+     * Runs the algorithim until the maze is complete
+     */
+    default void run() {
+        while (step()) {
+            // keep stepping
+        }
+    }
+
+    /**
+     * Returns the number of cells the algorithim has visited so far, counting a cell again every
+     * time it comes back to it. Algorithims that move a current cell around the grid count every
+     * cell it is moved to, including steps of random walks and moves back along a stack or a
+     * walk; those that handle cells in some other order count every cell they handle.
+     */
+    long cellsVisited();
+
+    /**
+     * Returns the most cells the algorithim has had on its backtracking stack at once, or 0 if it
+     * doesn't backtrack along a stack
+     */
+    default long peakStackDepth() {
+        return 0;
+    }
+
+    /**
+     * Starts the algorithim over on 'grid', drawing every random choice from 'rand', so that it
+     * carves the same maze a new instance created with them would. The memory of the previous run
+     * is cleared and used again rather than allocated, so restarting only writes to memory the
+     * instance already holds. Returns false without changing anything if the algorithim can't be
+     * restarted on 'grid', in which case a new instance must be created instead. Requires that
+     * 'grid' has every wall intact and 'rand' is not null.
+     */
+    default boolean restart(MazeGrid grid, SplittableRandom rand) {
+        return false;
+    }
+
+    /**
+     * Returns a random direction out of the set bits of 'mask', a 4-bit mask with a bit per
+     * direction in 'MazeGrid'. Requires that 'mask' is not zero.
+     */
+    static int randomDirection(int mask, SplittableRandom rand) {
+        assert mask != 0 && (mask & ~0xF) == 0;
+        // drop a random number of the lowest set bits, the lowest remaining one is the choice
+        for (int skip = rand.nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
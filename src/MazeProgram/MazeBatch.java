@@ -0,0 +1,209 @@
+package MazeProgram;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates batches of mazes concurrently into a single file, such as corpora of many small mazes
+ * used as fixtures. Maze number 'i' of a batch is generated from 'Seeds.derive(seed, i)' by
+ * whichever thread picks it up, so every maze, and the whole file, only depends on the seed of
+ * the batch and not on the number of threads. The mazes are written one after another in
+ * 'MazeFormat', each with its own header, in the order of their numbers. Only a bounded number of
+ * mazes are generated ahead of the one being written, so when writing is slower than generating
+ * the threads wait for it instead of piling mazes up in memory.
+ */
+public final class MazeBatch {
+
+    /**
+     * The most tasks generated ahead of the one being written per thread, unless another number
+     * is given
+     */
+    public static final int DEFAULT_PENDING_PER_THREAD = 4;
+
+    /**
+     * The size of the output buffer in bytes
+     */
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * The bytes of mazes each task generates at least, unless a single maze is larger. Small
+     * mazes are generated many to a task so handing out tasks doesn't take longer than carving.
+     */
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    /**
+     * The grid and algorithim each thread generates its mazes with, so that mazes of the same size
+     * reset them in place instead of allocating new ones
+     */
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private MazeBatch() {
+    }
+
+    /**
+     * Generates 'count' mazes of 'rows' by 'cols' cells with 'algorithm' from 'seed' on
+     * 'executor' and writes them to 'out'. The mazes are split into tasks of consecutive mazes,
+     * and at most 'maxPending' tasks are generated or being generated that haven't been written
+     * yet. Requires that 'count' is not negative, 'rows', 'cols' and 'maxPending' are positive,
+     * a maze fits in a buffer, and 'out', 'algorithm' and 'executor' are not null.
+     */
+    public static void write(WritableByteChannel out, long count, int rows, int cols, long seed,
+                             Algorithm algorithm, ExecutorService executor, int maxPending)
+            throws IOException {
+        assert out != null && algorithm != null && executor != null;
+        assert count >= 0 && rows > 0 && cols > 0 && maxPending > 0;
+        long mazeBytes = MazeFormat.encodedBytes(rows, cols);
+        if (mazeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze of " + rows + "x" + cols
+                    + " is too large to generate in a batch");
+        }
+        int chunk = (int) Math.max(1, CHUNK_BYTES / mazeBytes);
+        ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<>(maxPending);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        long submitted = 0;
+        try {
+            while (submitted < count || !pending.isEmpty()) {
+                while (submitted < count && pending.size() < maxPending) {
+                    long first = submitted;
+                    int mazes = (int) Math.min(chunk, count - first);
+                    submitted += mazes;
+                    pending.add(executor.submit(
+                            () -> encode(rows, cols, seed, algorithm, first, mazes)));
+                }
+                ByteBuffer generated = await(pending.remove());
+                if (generated.remaining() > buffer.remaining()) {
+                    writeFully(out, buffer.flip());
+                    buffer.clear();
+                }
+                if (generated.remaining() > buffer.remaining()) {
+                    writeFully(out, generated); // larger than the whole buffer
+                } else {
+                    buffer.put(generated);
+                }
+            }
+            writeFully(out, buffer.flip());
+        } finally {
+            for (Future<ByteBuffer> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Generates the 'mazes' mazes of 'rows' by 'cols' cells numbered from 'first' in the batch
+     * with 'algorithm' from 'seed' in the current thread's workspace, and returns them encoded in
+     * 'MazeFormat' one after another
+     */
+    private static ByteBuffer encode(int rows, int cols, long seed, Algorithm algorithm,
+                                     long first, int mazes) {
+        Workspace workspace = WORKSPACE.get();
+        ByteBuffer buffer = ByteBuffer.allocate(mazes * (int) MazeFormat.encodedBytes(rows, cols))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (long i = first; i < first + mazes; i++) {
+            MazeFormat.encode(workspace.generate(rows, cols, Seeds.derive(seed, i), algorithm),
+                    buffer);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Waits for 'future' and returns its mazes, rethrowing anything their generation threw
+     */
+    private static ByteBuffer await(Future<ByteBuffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating mazes");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Maze generation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes all of 'buffer' to 'out'
+     */
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * The grid a thread carves its mazes into and the algorithim that carved the last of them
+     */
+    private static final class Workspace {
+
+        private MazeGrid grid;
+        private MazeAlgorithm generation;
+        private Algorithm algorithm;
+
+        /**
+         * Carves the maze of 'rows' by 'cols' cells from 'seed' with 'newAlgorithm' into the
+         * grid, reusing the grid and algorithim of the last maze where they fit, and returns it.
+         * The maze is only valid until the next call.
+         */
+        Maze generate(int rows, int cols, long seed, Algorithm newAlgorithm) {
+            if (grid == null || grid.rows() != rows || grid.cols() != cols) {
+                grid = new MazeGrid(rows, cols);
+                generation = null;
+            } else {
+                grid.reset();
+            }
+            generation = newAlgorithm.reuse(newAlgorithm == algorithm ? generation : null, grid,
+                    seed);
+            algorithm = newAlgorithm;
+            generation.run();
+            return new Maze(grid, seed, newAlgorithm);
+        }
+    }
+
+    /**
+     * Generates a batch from the command line:
+     * 'MazeBatch count rows cols seed file [threads] [algorithm]'. Uses a thread per processor
+     * and the recursive backtracker unless told otherwise, and reports the mazes generated per
+     * second on standard error.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("usage: MazeBatch count rows cols seed file [threads] [algorithm]");
+            System.exit(2);
+        }
+        long count = Long.parseLong(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        int cols = Integer.parseInt(args[2]);
+        long seed = Long.parseLong(args[3]);
+        Path file = Path.of(args[4]);
+        int threads = args.length > 5 ? Integer.parseInt(args[5])
+                : Runtime.getRuntime().availableProcessors();
+        Algorithm algorithm = args.length > 6 ? Algorithm.valueOf(args[6].toUpperCase())
+                : Algorithm.RECURSIVE_BACKTRACKER;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, count, rows, cols, seed, algorithm, executor,
+                    threads * DEFAULT_PENDING_PER_THREAD);
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%,d mazes of %dx%d in %.2f s, %,.0f mazes/s on %d threads%n",
+                count, rows, cols, seconds, count / seconds, threads);
+    }
+}
@@ -0,0 +1,202 @@
+package MazeProgram;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Cache of generated mazes keyed by their size, algorithim and seed, which together decide every
+ * wall. The packed grids of the most recently used mazes are kept until their total size exceeds
+ * a budget in bytes, at which point the least recently used are dropped. A dropped maze isn't lost,
+ * since 'get' generates it again from its key. Mazes that would take less than a threshold to
+ * generate again aren't kept at all, so the budget goes to the ones worth keeping. Their cost is
+ * estimated from their number of cells and the time per cell their algorithim last took, as
+ * measured by 'get' or given to 'put'. Safe to use from multiple threads.
+ */
+public class MazeCache {
+
+    /**
+     * The number of bytes of grids kept unless another budget is given
+     */
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+
+    /**
+     * The time in nanoseconds to generate a maze again below which it isn't cached unless another
+     * threshold is given
+     */
+    public static final long DEFAULT_MIN_RECOMPUTE_NANOS = 20_000_000L;
+
+    /**
+     * The values deciding every wall of a maze
+     */
+    public record Key(int rows, int cols, Algorithm algorithm, long seed) {
+
+        /**
+         * Returns the key of 'maze'
+         */
+        public static Key of(Maze maze) {
+            return new Key(maze.grid().rows(), maze.grid().cols(), maze.algorithm(), maze.seed());
+        }
+    }
+
+    /**
+     * The cached mazes from least to most recently used
+     */
+    private final LinkedHashMap<Key, Maze> mazes;
+
+    /**
+     * The most bytes of grids kept and the bytes of the grids kept now
+     */
+    private final long budgetBytes;
+    private long usedBytes;
+
+    /**
+     * The time in nanoseconds to generate a maze again below which it isn't cached
+     */
+    private final long minRecomputeNanos;
+
+    /**
+     * The nanoseconds per cell each algorithim last took to generate a maze, for those measured
+     */
+    private final EnumMap<Algorithm, Double> nanosPerCell;
+
+    /**
+     * Called with every maze dropped to fit the budget, or null
+     */
+    private Consumer<Maze> evictionListener;
+
+    /**
+     * Constructs a new empty cache keeping up to 'budgetBytes' bytes of grids of mazes that would
+     * take at least 'DEFAULT_MIN_RECOMPUTE_NANOS' to generate again. Requires that 'budgetBytes'
+     * is not negative.
+     */
+    public MazeCache(long budgetBytes) {
+        this(budgetBytes, DEFAULT_MIN_RECOMPUTE_NANOS);
+    }
+
+    /**
+     * Constructs a new empty cache keeping up to 'budgetBytes' bytes of grids of mazes that would
+     * take at least 'minRecomputeNanos' to generate again. Requires that 'budgetBytes' and
+     * 'minRecomputeNanos' are not negative.
+     */
+    public MazeCache(long budgetBytes, long minRecomputeNanos) {
+        assert budgetBytes >= 0 && minRecomputeNanos >= 0;
+        this.budgetBytes = budgetBytes;
+        this.minRecomputeNanos = minRecomputeNanos;
+        this.mazes = new LinkedHashMap<>(16, 0.75f, true);
+        this.nanosPerCell = new EnumMap<>(Algorithm.class);
+    }
+
+    /**
+     * Sets the listener called with every maze dropped to fit the budget to 'listener', or removes
+     * it if 'listener' is null. The listener is called by the thread caching the maze that caused
+     * the drop, while the cache is locked.
+     */
+    public synchronized void setEvictionListener(Consumer<Maze> listener) {
+        this.evictionListener = listener;
+    }
+
+    /**
+     * Returns the number of bytes the walls of 'grid' take up
+     */
+    public static long bytes(MazeGrid grid) {
+        return MazeGrid.wordCount(grid.rows(), grid.cols()) * Long.BYTES;
+    }
+
+    /**
+     * Returns the cached maze for 'key', or null if it isn't cached
+     */
+    public synchronized Maze peek(Key key) {
+        return mazes.get(key);
+    }
+
+    /**
+     * Returns the estimated nanoseconds to generate the maze for 'key' again, or 'Long.MAX_VALUE'
+     * if its algorithim hasn't been measured yet
+     */
+    public synchronized long recomputeNanos(Key key) {
+        Double cost = nanosPerCell.get(key.algorithm());
+        return cost == null ? Long.MAX_VALUE : (long) (cost * key.rows() * key.cols());
+    }
+
+    /**
+     * Returns the maze for 'key', generating and caching it if it isn't cached. Requires that
+     * 'key' is not null.
+     */
+    public Maze get(Key key) {
+        Maze maze = peek(key);
+        if (maze == null) {
+            // generated outside the lock so other mazes can be looked up meanwhile
+            long start = System.nanoTime();
+            maze = Maze.generate(key.rows(), key.cols(), key.seed(), key.algorithm());
+            put(maze, System.nanoTime() - start);
+        }
+        return maze;
+    }
+
+    /**
+     * Returns the maze for 'key' like 'get(key)', but generates it on the common fork join pool if
+     * it isn't cached, completing the returned future once it is. Requires that 'key' is not null.
+     */
+    public CompletableFuture<Maze> getAsync(Key key) {
+        Maze maze = peek(key);
+        return maze != null ? CompletableFuture.completedFuture(maze)
+                : CompletableFuture.supplyAsync(() -> get(key));
+    }
+
+    /**
+     * Records that generating 'maze' took 'generationNanos', for estimating the cost of generating
+     * mazes with its algorithim again, unless it is -1 for unknown, and then caches it like
+     * 'put(maze)'. Requires that 'generationNanos' is at least -1.
+     */
+    public synchronized void put(Maze maze, long generationNanos) {
+        assert generationNanos >= -1;
+        if (generationNanos >= 0) {
+            nanosPerCell.put(maze.algorithm(), (double) generationNanos / maze.grid().cellCount());
+        }
+        put(maze);
+    }
+
+    /**
+     * Caches 'maze', which must be completely generated, dropping the least recently used mazes
+     * until the cache fits its budget again. Mazes larger than the whole budget or estimated to
+     * take less than the threshold to generate again aren't cached.
+     */
+    public synchronized void put(Maze maze) {
+        long size = bytes(maze.grid());
+        if (size > budgetBytes || recomputeNanos(Key.of(maze)) < minRecomputeNanos) {
+            return;
+        }
+        Maze previous = mazes.put(Key.of(maze), maze);
+        if (previous != null) {
+            usedBytes -= bytes(previous.grid());
+        }
+        usedBytes += size;
+        Iterator<Map.Entry<Key, Maze>> eldest = mazes.entrySet().iterator();
+        while (usedBytes > budgetBytes) {
+            Maze dropped = eldest.next().getValue();
+            usedBytes -= bytes(dropped.grid());
+            eldest.remove();
+            if (evictionListener != null) {
+                evictionListener.accept(dropped);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of mazes cached
+     */
+    public synchronized int size() {
+        return mazes.size();
+    }
+
+    /**
+     * Returns the number of bytes of grids cached
+     */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+}
@@ -0,0 +1,166 @@
+package MazeProgram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The binary format mazes are stored and streamed in. A 32 byte header is followed by the walls
+ * of every cell, all in little-endian byte order:
+ *
+ * <pre>
+ *   offset  size  field
+ *        0     4  magic, the ASCII characters "MAZE"
+ *        4     4  format version
+ *        8     4  number of rows
+ *       12     4  number of columns
+ *       16     8  seed the maze was generated from
+ *       24     4  id of the 'Algorithm' it was generated with, 'Algorithm.id()'
+ *       28     4  reserved, zero
+ *       32        the walls, 'MazeGrid.wordCount(rows, cols)' 64-bit words
+ * </pre>
+ *
+ * The walls are laid out exactly like the words of a 'MazeGrid': 2 bits per cell in row-major
+ * order, the right wall in the low bit and the bottom wall in the high bit, 32 cells per word.
+ * Bits past the last cell are set. Mazes are read and written by memory-mapping the walls, so
+ * reading a maze takes the same time however large it is, and its walls are never copied onto
+ * the Java heap. Mazes are written to a temporary file that then replaces the target, so a maze
+ * read from a file can be saved back over it.
+ */
+public final class MazeFormat {
+
+    /**
+     * The first four bytes of every maze, "MAZE" read as a little-endian int
+     */
+    public static final int MAGIC = 'M' | ('A' << 8) | ('Z' << 16) | ('E' << 24);
+
+    /**
+     * The version of the format written
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes, a whole number of words so the walls stay aligned
+     */
+    public static final int HEADER_BYTES = 32;
+
+    private MazeFormat() {
+    }
+
+    /**
+     * Returns a buffer holding the header of a 'rows' by 'cols' maze generated from 'seed' with
+     * 'algorithm', ready to be written
+     */
+    public static ByteBuffer header(int rows, int cols, long seed, Algorithm algorithm) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(rows)
+                .putInt(cols)
+                .putLong(seed)
+                .putInt(algorithm.id())
+                .putInt(0);
+        return header.flip();
+    }
+
+    /**
+     * Returns the number of bytes a 'rows' by 'cols' maze takes up in this format, header included
+     */
+    public static long encodedBytes(int rows, int cols) {
+        return HEADER_BYTES + MazeGrid.wordCount(rows, cols) * Long.BYTES;
+    }
+
+    /**
+     * Puts 'maze' in this format, header and walls, into 'buffer' at its position. Meant for small
+     * mazes, such as many of them written one after another. Requires that 'buffer' is in
+     * little-endian byte order and has 'encodedBytes' bytes remaining for the maze.
+     */
+    public static void encode(Maze maze, ByteBuffer buffer) {
+        MazeGrid grid = maze.grid();
+        assert buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        assert buffer.remaining() >= encodedBytes(grid.rows(), grid.cols());
+        buffer.put(header(grid.rows(), grid.cols(), maze.seed(), maze.algorithm()));
+        WordStore walls = grid.walls();
+        long words = MazeGrid.wordCount(grid.rows(), grid.cols());
+        for (long i = 0; i < words; i++) {
+            buffer.putLong(walls.get(i));
+        }
+    }
+
+    /**
+     * Writes 'maze' to 'file', creating or overwriting it. The maze is written to a temporary
+     * file in the same directory, which is then moved over 'file', so the walls of 'maze' may be
+     * mapped from 'file' itself and 'file' is never left half written.
+     */
+    public static void write(Maze maze, Path file) throws IOException {
+        MazeGrid grid = maze.grid();
+        long words = MazeGrid.wordCount(grid.rows(), grid.cols());
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, "maze", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer header = header(grid.rows(), grid.cols(), maze.seed(),
+                        maze.algorithm());
+                while (header.hasRemaining()) {
+                    channel.write(header, HEADER_BYTES - header.remaining());
+                }
+                WordStore from = grid.walls();
+                WordStore to = MappedWordStore.map(channel, HEADER_BYTES, words,
+                        FileChannel.MapMode.READ_WRITE, directory);
+                for (long i = 0; i < words; i++) {
+                    to.set(i, from.get(i));
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads the maze stored in 'file', which only needs to be readable. Its walls stay mapped
+     * from the file read-only, so the maze can be viewed, solved and saved but not carved again;
+     * new mazes are carved into new grids. Throws an IOException if 'file' does not hold a maze
+     * in this format.
+     */
+    public static Maze read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a maze file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long seed = header.getLong();
+            Algorithm algorithm = Algorithm.fromId(header.getInt());
+            long words = rows > 0 && cols > 0 ? MazeGrid.wordCount(rows, cols) : -1;
+            if (words < 0 || algorithm == null
+                    || channel.size() < HEADER_BYTES + words * Long.BYTES) {
+                throw new IOException(file + " is corrupt");
+            }
+            WordStore walls = MappedWordStore.map(channel, HEADER_BYTES, words,
+                    FileChannel.MapMode.READ_ONLY, file.toAbsolutePath().getParent());
+            return new Maze(MazeGrid.wrap(rows, cols, walls), seed, algorithm);
+        }
+    }
+}
@@ -3,15 +3,20 @@ package MazeProgram;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Random;
+import java.awt.GridLayout;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 /**
  * The Graphical Components and Model behind the Maze Application
@@ -22,58 +27,28 @@ public class MazeGUI {
      * Dimensions
      */
     static final int WIDTH = 750;
-    static final int HEIGHT = 470;
+    static final int HEIGHT = 510;
     static final int MAZE_WIDTH = 400;
     static final int MAZE_HEIGHT = 400;
     static final int CELL_WIDTH = 10;
-    static final int ROWS = (MAZE_WIDTH / CELL_WIDTH);
-    static final int COLS = (MAZE_HEIGHT / CELL_WIDTH);
+    static final int DEFAULT_ROWS = (MAZE_WIDTH / CELL_WIDTH);
+    static final int DEFAULT_COLS = (MAZE_HEIGHT / CELL_WIDTH);
+    static final int MAX_SIZE = 4096; // larger grids than fit are zoomed and panned
 
     /**
-     * List of cells in the maze
+     * The client property set on an export button while it writes a maze
      */
-    static ArrayList<Cell> cells = new ArrayList<>();
+    private static final String EXPORTING = "MazeGUI.exporting";
 
     /**
-     * The current color of the maze
-     */
-    static Color currentColor = Color.CYAN;
-
-    /**
-     * Record class representing a cell within the maze. 'i' and 'j' correspond to the cell's column
-     * and row position in the grid, 'xPos' and 'yPos' correspond to the cell's position on the
-     * window, 'walls' represents whether a wall exists between a cell's top [0], right [1], bottom
-     * [2], or left [3] neighbor in that index order (initialized as all 'true' upon creation), and
-     * 'neighbors' is a list of a cell's neighbors with their direction as a NeighborPair object.
+     * The grid of cells in the maze
      */
-    public record Cell(int i, int j, int xPos, int yPos, int cellWidth,
-                       ArrayList<NeighborPair> neighbors,
-                       boolean[] walls) {
-
-        @Override
-        public String toString() {
-            return "Cell At: " + this.i() + ", " + this.j();
-        }
-
-    }
+    private MazeGrid grid;
 
     /**
-     * Record class for a cell's neighbor. 'cell' responds to the cell object and 'type' represents
-     * the direction of the neighbor. Requires that type is either 'left', 'right', 'top', or
-     * 'bottom.'
-     */
-    public record NeighborPair(Cell cell, String type) {
-
-    }
-
-    /**
-     * Record class for a location pair representing a position on the maze grid based on row and
-     * column.
+     * The current color of the maze
      */
-    public record LocPair(int row, int col) {
-
-    }
-
+    static Color currentColor = Color.CYAN;
 
     /**
      * Constructs a new Maze application
@@ -89,8 +64,9 @@ public class MazeGUI {
         mazePanel.setPreferredSize(new Dimension(100, 100));
         mazePanel.setBackground(Color.BLACK);
 
-        setup(CELL_WIDTH, cells); // set up the grid
-        GridCell cellGrid = new GridCell(cells, currentColor); // create the grid of cells
+        grid = new MazeGrid(DEFAULT_ROWS, DEFAULT_COLS); // set up the grid
+        GridCell cellGrid = new GridCell(grid, (WIDTH - MAZE_WIDTH) / 2, 10, MAZE_WIDTH,
+                currentColor); // create the grid of cells
         mazePanel.add(cellGrid, BorderLayout.CENTER);
         frame.add(mazePanel, BorderLayout.CENTER);
         frame.setBackground(Color.BLACK);
@@ -101,25 +77,147 @@ public class MazeGUI {
         /*
         Creates a new MazeGenerator object
          */
-        MazeGenerator mazeGenerator = new MazeGenerator(3, cellGrid, mazePanel, cells);
+        MazeGenerator mazeGenerator = new MazeGenerator(3, cellGrid, grid);
 
         /*
-        Button action listener that paints a new grid
+        Metrics of generating and painting mazes, readable through JMX and shown over the maze
+        from the settings
+         */
+        MazeMetrics metrics = new MazeMetrics();
+        metrics.register();
+        mazeGenerator.setMetrics(metrics);
+        cellGrid.setMetrics(metrics);
+
+        MazePrefetcher prefetcher = new MazePrefetcher();
+        SettingsWindow settingsWindow = new SettingsWindow(cellGrid, mazePanel, mazeGenerator,
+                prefetcher);
+
+        /*
+        Recently shown mazes that take a while to generate, kept in a cache until it is full and
+        generated again from their seeds when going back or forward to one that isn't cached. The
+        grids of dropped mazes are handed back to the generator to carve new mazes into, on the
+        event dispatch thread since mazes generated again are cached from the common pool.
+         */
+        MazeCache cache = new MazeCache(MazeCache.DEFAULT_BUDGET_BYTES);
+        MazeHistory history = new MazeHistory();
+        mazeGenerator.setCompletionListener(cache::put);
+        cache.setEvictionListener(
+                maze -> SwingUtilities.invokeLater(() -> mazeGenerator.recycle(maze)));
+        JButton backButton = new JButton("Back");
+        JButton forwardButton = new JButton("Forward");
+        Runnable updateHistoryButtons = () -> {
+            backButton.setEnabled(history.hasBack());
+            forwardButton.setEnabled(history.hasForward());
+        };
+        updateHistoryButtons.run();
+        Consumer<MazeCache.Key> showKey = key -> {
+            updateHistoryButtons.run();
+            cache.getAsync(key).thenAcceptAsync(maze -> {
+                if (!key.equals(history.current())) {
+                    return; // moved on to another maze while this one was generated
+                }
+                grid = maze.grid();
+                mazeGenerator.showMaze(maze);
+                settingsWindow.showSeed(key.seed());
+                cellGrid.updateGrid(grid);
+            }, SwingUtilities::invokeLater);
+        };
+        backButton.addActionListener(e -> showKey.accept(history.back()));
+        forwardButton.addActionListener(e -> showKey.accept(history.forward()));
+
+        /*
+        Button action listener that paints a new grid with the dimensions from the settings
          */
         generateButton.addActionListener(e -> {
-            cells = new ArrayList<>();
-            setup(CELL_WIDTH, cells);
-//            mazeGenerator(cells, cellGrid, mazePanel, frame);
-            mazeGenerator.updateCells(cells);
-            mazeGenerator.generateMaze();
-            cellGrid.updateCells(cells);
+            int rows = settingsWindow.getRows();
+            int cols = settingsWindow.getCols();
+            Maze ready = null;
+            if (!mazeGenerator.isAnimated() && settingsWindow.isRandomSeed()) {
+                ready = prefetcher.poll(rows, cols, mazeGenerator.getAlgorithm());
+            }
+            if (ready != null) {
+                grid = ready.grid();
+                mazeGenerator.showMaze(ready);
+                cache.put(ready);
+            } else {
+                grid = mazeGenerator.newGrid(rows, cols);
+                mazeGenerator.updateGrid(grid);
+                if (settingsWindow.isRandomSeed()) {
+                    mazeGenerator.generateMaze();
+                } else {
+                    mazeGenerator.generateMaze(settingsWindow.getSeed());
+                }
+            }
+            settingsWindow.showSeed(mazeGenerator.currentMaze().seed());
+            history.add(MazeCache.Key.of(mazeGenerator.currentMaze()));
+            updateHistoryButtons.run();
+            cellGrid.updateGrid(grid);
             mazePanel.repaint();
-            frame.pack();
         });
 
+        /*
+        Buttons saving the current maze to a file and loading a saved one
+         */
+        JFileChooser fileChooser = new JFileChooser();
+        JButton saveButton = new JButton("Save");
+        saveButton.addActionListener(e -> {
+            if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            try {
+                MazeFormat.write(mazeGenerator.currentMaze(),
+                        fileChooser.getSelectedFile().toPath());
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(frame, "Could not save the maze: " + ex.getMessage(),
+                        "Save", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        JButton loadButton = new JButton("Load");
+        loadButton.addActionListener(e -> {
+            if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            try {
+                Maze maze = MazeFormat.read(fileChooser.getSelectedFile().toPath());
+                grid = maze.grid();
+                mazeGenerator.showMaze(maze);
+                settingsWindow.showSeed(maze.seed());
+                cache.put(maze);
+                history.add(MazeCache.Key.of(maze));
+                updateHistoryButtons.run();
+                cellGrid.updateGrid(grid);
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(frame, "Could not load the maze: " + ex.getMessage(),
+                        "Load", JOptionPane.ERROR_MESSAGE);
+            }
+        });
 
-
-        mazePanel.add(generateButton, BorderLayout.SOUTH);
+        /*
+        Buttons exporting the current maze as an image in the selected color
+         */
+        JButton pngButton = createExportButton("Export PNG", frame, fileChooser,
+                settingsWindow, mazeGenerator, (exported, wall, file) -> PngWriter.write(exported,
+                        PngWriter.DEFAULT_CELL_SIZE, wall, Color.BLACK, file,
+                        ForkJoinPool.commonPool()));
+        JButton svgButton = createExportButton("Export SVG", frame, fileChooser,
+                settingsWindow, mazeGenerator, (exported, wall, file) -> SvgWriter.write(exported,
+                        SvgWriter.DEFAULT_CELL_SIZE, wall, Color.BLACK, file));
+
+        JPanel generatePanel = new JPanel();
+        generatePanel.setBackground(Color.BLACK);
+        generatePanel.add(backButton);
+        generatePanel.add(generateButton);
+        generatePanel.add(forwardButton);
+        JPanel filePanel = new JPanel();
+        filePanel.setBackground(Color.BLACK);
+        filePanel.add(saveButton);
+        filePanel.add(loadButton);
+        filePanel.add(pngButton);
+        filePanel.add(svgButton);
+        JPanel buttonPanel = new JPanel(new GridLayout(0, 1));
+        buttonPanel.add(generatePanel);
+        buttonPanel.add(filePanel);
+        mazePanel.add(buttonPanel, BorderLayout.SOUTH);
 
         /*
         Settings panel providing the user to change colors
@@ -129,9 +227,59 @@ public class MazeGUI {
         settingsPanel.setPreferredSize(new Dimension((WIDTH - MAZE_WIDTH) / 2 - 10, HEIGHT));
         JButton settingsButton = new JButton("Settings");
         settingsPanel.add(settingsButton, BorderLayout.NORTH);
+        JButton solveButton = new JButton("Solve");
+        settingsPanel.add(solveButton);
+        JButton statisticsButton = new JButton("Statistics");
+        settingsPanel.add(statisticsButton);
+        JButton heatmapButton = new JButton("Heatmap");
+        settingsPanel.add(heatmapButton);
         mazePanel.add(settingsPanel, BorderLayout.EAST);
 
-        SettingsWindow settingsWindow = new SettingsWindow(cellGrid, mazePanel, mazeGenerator);
+        /*
+        Buttons reading the current maze, disabled while a worker is still carving its grid, and
+        export buttons also while they are writing one
+         */
+        List<JButton> mazeButtons = List.of(saveButton, pngButton, svgButton, solveButton,
+                statisticsButton, heatmapButton);
+        Runnable updateMazeButtons = () -> {
+            for (JButton button : mazeButtons) {
+                button.setEnabled(!mazeGenerator.isGenerating()
+                        && button.getClientProperty(EXPORTING) == null);
+            }
+        };
+        mazeGenerator.setGeneratingListener(updateMazeButtons);
+        updateMazeButtons.run();
+
+        /*
+        Solves the maze from the top left cell to the bottom right cell with the solver from the
+        settings and draws the solution
+         */
+        solveButton.addActionListener(e -> {
+            MazePath path = settingsWindow.getSolver().solve(grid, 0, grid.cellCount() - 1);
+            cellGrid.updatePath(path);
+            mazePanel.repaint();
+        });
+
+        /*
+        Shows the statistics accumulated while the current maze was carved, walking its corridors
+        for their histogram the first time
+         */
+        statisticsButton.addActionListener(e -> {
+            MazeStatistics statistics = mazeGenerator.currentMaze().statistics();
+            JOptionPane.showMessageDialog(frame, statistics == null
+                            ? "No statistics were collected for this maze" : statistics.toString(),
+                    "Statistics", JOptionPane.INFORMATION_MESSAGE);
+        });
+
+        /*
+        Fills the cells with a heatmap of their distances from the top left cell, or removes it
+        if it is shown
+         */
+        heatmapButton.addActionListener(e -> {
+            cellGrid.updateHeatmap(cellGrid.getHeatmap() != null ? null
+                    : DistanceField.compute(grid, 0, ForkJoinPool.commonPool()));
+            mazePanel.repaint();
+        });
 
         /*
         Allows the settingsWindow to be shown
@@ -141,8 +289,6 @@ public class MazeGUI {
             settingsWindow.pack();
         });
 
-        frame.setResizable(false);
-
         frame.pack();
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
@@ -151,182 +297,58 @@ public class MazeGUI {
     }
 
     /**
-     * Sets up the grid layout
-     */
-    private static void setup(int w, ArrayList<Cell> cells) {
-        HashMap<LocPair, Cell> locMap = new HashMap<>();
-
-        int xOffset = (WIDTH - MAZE_WIDTH) / 2;
-        int yOffset = 10;
-
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLS; j++) {
-                Cell newCell = new Cell(i, j, (j * w) + xOffset, (i * w) + yOffset, w,
-                        new ArrayList<>(),
-                        new boolean[]{true, true, true, true});
-                cells.add(newCell);
-                locMap.put(new LocPair(i, j), newCell);
-            }
-        }
-
-        // find cells neighbors
-        for (int i = 0; i < cells.size(); i++) {
-            Cell currentCell = cells.get(i);
-
-            int bottomCell = currentCell.i() + 1;
-            int topCell = currentCell.i() - 1;
-            int leftCell = currentCell.j() - 1;
-            int rightCell = currentCell.j() + 1;
-
-            // check left
-            if (locMap.containsKey(new LocPair(currentCell.i(), leftCell))) {
-                currentCell.neighbors()
-                        .add(new NeighborPair(
-                                locMap.get(new LocPair(currentCell.i(), leftCell)),
-                                "left"));
-            }
-            // check right
-            if (locMap.containsKey(new LocPair(currentCell.i(), rightCell))) {
-                currentCell.neighbors()
-                        .add(new NeighborPair(
-                                locMap.get(new LocPair(currentCell.i(), rightCell)),
-                                "right"));
-            }
-            // check top
-            if (locMap.containsKey(new LocPair(topCell, currentCell.j()))) {
-                currentCell.neighbors()
-                        .add(new NeighborPair(
-                                locMap.get(new LocPair(topCell, currentCell.j())),
-                                "top"));
-            }
-            // check bottom
-            if (locMap.containsKey(new LocPair(bottomCell, currentCell.j()))) {
-                currentCell.neighbors()
-                        .add(new NeighborPair(
-                                locMap.get(new LocPair(bottomCell, currentCell.j())),
-                                "bottom"));
-            }
-
-
-        }
-
-    }
-
-
-    /**
-     * NOTE: Used in an earlier version of the program before making a seperate MazeGenerator class
-     * \\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\
-     *
-     * Randomly generates a new Maze using a recursive backtracking depth-first search algorithim
-     * (implementing iteratively to avoid stack overflows). By visualizing a maze as a grid, with
-     * each cell having four walls, the algorithim starts with a random cell, marks it as visited
-     * and selects a random unvisited neighbor, removing the wall between the chosen cell and
-     * neighbor. The neighbor is then marked as a visited and will be the next cell to be chosen. A
-     * stack is implemented to allow for backtracking in the event that a chosen cell's neighbors
-     * have all been visited, in which the algorithim will backtrack to a cell with an unvisited
-     * neighbor until all cells have been visited. 'cells' is the list of cell objects in the maze
-     * grid. Requires that 'cells' is not null or empty.
+     * Writes an image of a maze's grid with its walls in a color to a file
      */
-    private static void mazeGenerator(ArrayList<Cell> cells) {
-        assert cells != null && !cells.isEmpty();
-        Deque<Cell> stack = new LinkedList<>();
-        HashSet<String> visited = new HashSet<>();
-        Random rand = new Random();
-
-        int ranIndex = rand.nextInt(cells.size());
-
-        Cell srcCell = cells.get(ranIndex); // choose the inital cell
-        visited.add(srcCell.toString()); // mark it as visited
-        stack.push(srcCell); // push the cell onto the stack
-
-        while (!stack.isEmpty()) {
-            Cell currentCell = stack.pop();
-            // pop the cell off the stack and mark it as current
-            NeighborPair neighbor = selectNeighbor(currentCell, visited);
-            if (neighbor != null) { // if the cell has a neighbor that has not been visited
-                stack.push(currentCell); // push the current cell onto the stack
-                /*
-                Remove the wall between the current neighbor and the current cell
-                 */
-                switch (neighbor.type()) {
-                    case "left":
-                        currentCell.walls()[3] = false;
-                        neighbor.cell().walls()[1] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "right":
-                        currentCell.walls()[1] = false;
-                        neighbor.cell().walls()[3] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "top":
-                        currentCell.walls()[0] = false;
-                        neighbor.cell().walls()[2] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "bottom":
-                        currentCell.walls()[2] = false;
-                        neighbor.cell().walls()[0] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                }
-
-                visited.add(neighbor.cell().toString()); // mark the chosen cell as visited
-                stack.push(neighbor.cell()); // push the chosen cell onto the stack
-            }
-        }
-
+    private interface Export {
+        void write(MazeGrid grid, Color wall, Path file) throws IOException;
     }
 
     /**
-     * Selects a random unvisited neighbor from the chosen cell by shuffling the list of the cell's
-     * neighbors and adding all unvisited neighbors to a seperate list. A random neighbor from that
-     * unvisited list is then chosen and returned. Returns 'null' if all neighbors have been
-     * visited. Requires that 'cell' is not null and 'visited' is not null.
+     * Returns a button named 'title' exporting the current maze with 'export' to a file chosen
+     * with 'fileChooser', in the color selected in 'settingsWindow'. The image is written in the
+     * background as large mazes take a while, and the button is disabled until it is done, and
+     * after that while 'mazeGenerator' is carving. The grid is pinned meanwhile so
+     * 'mazeGenerator' never carves a new maze into it.
      */
-    private static NeighborPair selectNeighbor(Cell cell, HashSet<String> visited) {
-        assert cell != null && visited != null;
-        shuffle(cell.neighbors()); // shuffle the array of neighbors
-        Random rand = new Random();
-        ArrayList<NeighborPair> unvisited = new ArrayList<>();
-        for (NeighborPair neighbor : cell.neighbors()) {
-            if (!visited.contains(neighbor.cell().toString())) {
-                unvisited.add(neighbor);
+    private JButton createExportButton(String title, JFrame frame, JFileChooser fileChooser,
+                                       SettingsWindow settingsWindow,
+                                       MazeGenerator mazeGenerator, Export export) {
+        JButton button = new JButton(title);
+        button.addActionListener(e -> {
+            if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
             }
-        }
-        if (unvisited.isEmpty()) {
-            return null;
-        }
-
-        return unvisited.get(rand.nextInt(unvisited.size()));
-    }
-
-    /**
-     * Swap method that swaps two elements in a list by their index. Requires that 'arr' is not null
-     * and 'x' and 'y' are valid indices in 'arr'.
-     */
-    private static void swap(ArrayList<NeighborPair> arr, int x, int y) {
-        assert arr != null;
-        assert (0 <= x && x < arr.size()) && (0 <= y && y < arr.size());
-        NeighborPair temp = arr.get(x);
-        arr.set(x, arr.get(y));
-        arr.set(y, temp);
-    }
-
-
-    /**
-     * Fisher-yates shuffle. Requires that 'neighbors' is not null.
-     */
-    private static void shuffle(ArrayList<NeighborPair> neighbors) {
-        assert neighbors != null;
-        Random rand = new Random();
-        int n = neighbors.size();
-
-        for (int i = n - 1; i > 0; i--) {
-            int j = rand.nextInt(i + 1);
-            swap(neighbors, i, j);
-        }
+            MazeGrid exported = grid;
+            Color wall = settingsWindow.getColor();
+            Path file = fileChooser.getSelectedFile().toPath();
+            button.putClientProperty(EXPORTING, Boolean.TRUE);
+            button.setEnabled(false);
+            mazeGenerator.pin(exported);
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() throws IOException {
+                    export.write(exported, wall, file);
+                    return null;
+                }
 
+                @Override
+                protected void done() {
+                    mazeGenerator.unpin(exported);
+                    button.putClientProperty(EXPORTING, null);
+                    button.setEnabled(!mazeGenerator.isGenerating());
+                    try {
+                        get();
+                    } catch (ExecutionException ex) {
+                        JOptionPane.showMessageDialog(frame,
+                                "Could not export the maze: " + ex.getCause().getMessage(),
+                                title, JOptionPane.ERROR_MESSAGE);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }.execute();
+        });
+        return button;
     }
 
 }
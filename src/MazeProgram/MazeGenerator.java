@@ -1,77 +1,117 @@
 package MazeProgram;
 
 
-import MazeProgram.MazeGUI.Cell;
-import MazeProgram.MazeGUI.NeighborPair;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Random;
-import javax.swing.JPanel;
-import javax.swing.Timer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ObjLongConsumer;
+import javax.swing.SwingWorker;
 
 /**
- * Class that represents the generation of a maze grid onto a JPanel by using the recursive
- * backtracking algorithim on an instance of a MazeGenerator object allowing for control over all
- * states in the algorithim which aids in the implementation for its animation
+ * Class that represents the generation of a maze grid onto a JPanel by driving the selected
+ * 'MazeAlgorithm' on a background thread, either all at once or a number of steps per frame,
+ * which allows for the animation of the algorithim without blocking the event dispatch thread
  */
-public class MazeGenerator implements ActionListener {
+public class MazeGenerator {
 
     /**
-     * Timer object used for animation speed
+     * The number of steps carved between frames of the animation unless changed
      */
-    private final Timer timer;
+    public static final int DEFAULT_STEPS_PER_FRAME = 1;
 
     /**
-     * The stack of cells used in the backtracking algorithim
+     * The ms delay between frames of the animation and the number of steps carved in each frame.
+     * Both may be changed from the event dispatch thread while a worker reads them.
      */
-    private Deque<Cell> stack;
+    private volatile int frameDelay;
+    private volatile int stepsPerFrame;
 
     /**
-     * The set of visited cells in the backtracking algorithim
+     * The algorithim used for new mazes
      */
-    private HashSet<String> visited;
+    private Algorithm algorithm;
 
     /**
-     * A reference to the GridCell object
+     * The worker carving the current maze, or null if none is running
      */
-    private final GridCell cellGrid;
+    private GenerationWorker worker;
 
     /**
-     * A reference to the JPanel where this maze is placed on
+     * The seed and algorithim the current maze was generated with
      */
-    private final JPanel panel;
+    private long seed;
+    private Algorithm mazeAlgorithm;
 
     /**
-     * A reference to the list of cells
+     * The statistics of the current maze, accumulated while it is carved, or null if none are
      */
-    private ArrayList<Cell> cells;
-    private boolean isAnimated;
+    private MazeStatistics statistics;
 
     /**
-     * Constructs a new MazeGenerator object with a desired ms delay for its animation
+     * The algorithim that carved the last completed maze and its kind, restarted rather than
+     * created again when the next maze uses the same kind, or null if there is none
      */
-    public MazeGenerator(int delay, GridCell cellGrid, JPanel panel, ArrayList<Cell> cells) {
-        this.isAnimated = true;
-        this.timer = new Timer(delay, this);
-        this.stack = new LinkedList<>();
-        this.visited = new HashSet<>();
+    private MazeAlgorithm spare;
+    private Algorithm spareAlgorithm;
 
-        Random rand = new Random();
+    /**
+     * A grid no longer shown or cached, restored and carved again when a new maze of its size is
+     * needed, or null if there is none
+     */
+    private MazeGrid spareGrid;
 
-        int ranIndex = rand.nextInt(cells.size());
+    /**
+     * Grids still being read outside of the generator, such as by exports, which must not be
+     * recycled. A grid appears once for each time it was pinned and not yet unpinned.
+     */
+    private final List<MazeGrid> pinned = new ArrayList<>();
 
-        Cell srcCell = cells.get(ranIndex); // choose the inital cell
-        visited.add(srcCell.toString()); // mark it as visited
-        stack.push(srcCell); // push the cell onto the stack
+    /**
+     * Records the metrics of every completed generation and of the animation, or null
+     */
+    private MazeMetrics metrics;
 
-        this.cellGrid = cellGrid;
-        this.panel = panel;
-        this.cells = cells;
+    /**
+     * Called on the event dispatch thread with every maze whose generation completes and the
+     * nanoseconds carving it took, or -1 if it was animated, or null
+     */
+    private ObjLongConsumer<Maze> completionListener;
+
+    /**
+     * Called on the event dispatch thread whenever a worker starts or stops carving, or null
+     */
+    private Runnable generatingListener;
+
+    /**
+     * The random number generator picking the seeds of mazes generated without one
+     */
+    private final SplittableRandom rand;
 
+    /**
+     * A reference to the GridCell object
+     */
+    private final GridCell cellGrid;
+
+    /**
+     * A reference to the maze grid
+     */
+    private MazeGrid grid;
+    private boolean isAnimated;
+
+    /**
+     * Constructs a new MazeGenerator object with a desired ms delay between the frames of its
+     * animation
+     */
+    public MazeGenerator(int delay, GridCell cellGrid, MazeGrid grid) {
+        this.isAnimated = true;
+        this.algorithm = Algorithm.RECURSIVE_BACKTRACKER;
+        this.frameDelay = delay;
+        this.stepsPerFrame = DEFAULT_STEPS_PER_FRAME;
+        this.rand = new SplittableRandom();
+        this.cellGrid = cellGrid;
+        this.grid = grid;
     }
 
     /**
@@ -82,211 +122,378 @@ public class MazeGenerator implements ActionListener {
     }
 
     /**
-     * Generates a new maze based on 'isAnimated'. If 'true', the animation will start, otherwise a
-     * maze will be generated instantly
+     * Returns whether new mazes are animated
      */
-    public void generateMaze() {
-        if (isAnimated) {
-            startAnimation();
-        } else {
-            mazeGenerator(cells);
-        }
+    public boolean isAnimated() {
+        return isAnimated;
     }
 
     /**
-     * Updates the reference of the current list of cells to 'newCells'
+     * Returns the algorithim used for new mazes
      */
-    public void updateCells(ArrayList<Cell> newCells) {
-        this.cells = newCells;
+    public Algorithm getAlgorithm() {
+        return algorithm;
     }
 
     /**
-     * Updates the timer delay to 'newDelay'
+     * Generates a new maze based on 'isAnimated', stopping the generation of the previous one. If
+     * 'true', the animation will start, otherwise a maze will be generated in the background and
+     * redrawn in full once it is complete. The maze is generated from a new random seed.
      */
-    public void changeDelayTime(int newDelay) {
-        timer.setDelay(newDelay);
+    public void generateMaze() {
+        generateMaze(rand.nextLong());
     }
 
     /**
-     * Resets the stack and visited set to empty for the purpose of initalizing a new generation of
-     * the maze. Essentially starts the first step of the recursive backtracking algorihtim
+     * Generates a new maze like 'generateMaze()', drawing every random choice from 'newSeed'.
+     * Generating with the same seed, algorithim and grid size always gives the same maze.
      */
-    private void reset() {
-        this.stack = new LinkedList<>();
-        this.visited = new HashSet<>();
+    public void generateMaze(long newSeed) {
+        generateMaze(newSeed, algorithm, isAnimated);
+    }
 
-        Random rand = new Random();
+    /**
+     * Generates a new maze from 'newSeed' with 'newAlgorithm', animated if 'animated' is true,
+     * regardless of the settings for new mazes. Requires that 'newAlgorithm' is not null.
+     */
+    public void generateMaze(long newSeed, Algorithm newAlgorithm, boolean animated) {
+        assert newAlgorithm != null;
+        stop();
+        seed = newSeed;
+        mazeAlgorithm = newAlgorithm;
+        MazeAlgorithm generation = newAlgorithm.reuse(
+                newAlgorithm == spareAlgorithm ? spare : null, grid, seed);
+        spare = null;
+        spareAlgorithm = null;
+        // the tiled algorithim carves in parallel when not animated, where walls can't be counted
+        statistics = animated || newAlgorithm != Algorithm.TILED_BACKTRACKER
+                ? new MazeStatistics(grid) : null;
+        worker = new GenerationWorker(new Maze(grid, seed, newAlgorithm, statistics), generation,
+                animated);
+        worker.execute();
+        if (generatingListener != null) {
+            generatingListener.run();
+        }
+    }
 
-        int ranIndex = rand.nextInt(cells.size());
+    /**
+     * Returns whether a worker is still carving the current maze, writing to its grid
+     */
+    public boolean isGenerating() {
+        return worker != null;
+    }
 
-        Cell srcCell = cells.get(ranIndex); // choose the inital cell
-        visited.add(srcCell.toString()); // mark it as visited
-        stack.push(srcCell); // push the cell onto the stack
+    /**
+     * Sets the listener called whenever a worker starts or stops carving, as told by
+     * 'isGenerating()', to 'listener', or removes it if 'listener' is null
+     */
+    public void setGeneratingListener(Runnable listener) {
+        this.generatingListener = listener;
     }
 
     /**
-     * Starts the animation for the maze generation
+     * Sets the listener called with every maze whose generation completes and the nanoseconds
+     * carving it took, or -1 if it was animated and so took as long as the animation, to
+     * 'listener', or removes it if 'listener' is null
      */
-    public void startAnimation() {
-        reset();
-        timer.setRepeats(true);
-        timer.start();
+    public void setCompletionListener(ObjLongConsumer<Maze> listener) {
+        this.completionListener = listener;
     }
 
     /**
-     * Separates the removal of the walls step of the algorithim into a single action to be used
-     * with a timer that repeately calls this method. Allows for an animation of the maze being
-     * generated.
-     */
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (!stack.isEmpty()) {
-            Cell currentCell = stack.pop();
-            // pop the cell off the stack and mark it as current
-            NeighborPair neighbor = selectNeighbor(currentCell, visited);
-            if (neighbor != null) { // if the cell has a neighbor that has not been visited
-                stack.push(currentCell); // push the current cell onto the stack
-                /*
-                Remove the wall between the current neighbor and the current cell
-                 */
-                switch (neighbor.type()) {
-                    case "left":
-                        currentCell.walls()[3] = false;
-                        neighbor.cell().walls()[1] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "right":
-                        currentCell.walls()[1] = false;
-                        neighbor.cell().walls()[3] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "top":
-                        currentCell.walls()[0] = false;
-                        neighbor.cell().walls()[2] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "bottom":
-                        currentCell.walls()[2] = false;
-                        neighbor.cell().walls()[0] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                }
+     * Sets the metrics recording every generation from now on to 'newMetrics', or stops recording
+     * if 'newMetrics' is null
+     */
+    public void setMetrics(MazeMetrics newMetrics) {
+        this.metrics = newMetrics;
+    }
 
-                visited.add(neighbor.cell().toString()); // mark the chosen cell as visited
-                stack.push(neighbor.cell()); // push the chosen cell onto the stack
+    /**
+     * Stops the generation of the current maze if it is still being carved
+     */
+    public void stop() {
+        if (worker != null) {
+            worker.cancel(true);
+            worker = null;
+            if (generatingListener != null) {
+                generatingListener.run();
             }
-            cellGrid.updateCells(cells);
-            cellGrid.repaint();
-            panel.repaint();
-        } else {
-            ((Timer) (e.getSource())).stop();
         }
     }
 
-
     /**
-     * Randomly generates a new Maze using a recursive backtracking depth-first search algorithim
-     * (implementing iteratively to avoid stack overflows). By visualizing a maze as a grid, with
-     * each cell having four walls, the algorithim starts with a random cell, marks it as visited
-     * and selects a random unvisited neighbor, removing the wall between the chosen cell and
-     * neighbor. The neighbor is then marked as a visited and will be the next cell to be chosen. A
-     * stack is implemented to allow for backtracking in the event that a chosen cell's neighbors
-     * have all been visited, in which the algorithim will backtrack to a cell with an unvisited
-     * neighbor until all cells have been visited. 'cells' is the list of cell objects in the maze
-     * grid. Requires that 'cells' is not null or empty.
-     */
-    private void mazeGenerator(ArrayList<Cell> cells) {
-        reset();
-
-        while (!stack.isEmpty()) {
-            Cell currentCell = stack.pop();
-            // pop the cell off the stack and mark it as current
-            NeighborPair neighbor = selectNeighbor(currentCell, visited);
-            if (neighbor != null) { // if the cell has a neighbor that has not been visited
-                stack.push(currentCell); // push the current cell onto the stack
-                /*
-                Remove the wall between the current neighbor and the current cell
-                 */
-                switch (neighbor.type()) {
-                    case "left":
-                        currentCell.walls()[3] = false;
-                        neighbor.cell().walls()[1] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "right":
-                        currentCell.walls()[1] = false;
-                        neighbor.cell().walls()[3] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "top":
-                        currentCell.walls()[0] = false;
-                        neighbor.cell().walls()[2] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                    case "bottom":
-                        currentCell.walls()[2] = false;
-                        neighbor.cell().walls()[0] = false;
-                        currentCell.neighbors().remove(neighbor);
-                        break;
-                }
+     * Returns a grid of 'rows' by 'cols' cells with every wall intact and no wall listener for a
+     * new maze. The spare grid is restored in place and returned if it has that size, otherwise a
+     * new grid is allocated. Requires that 'rows' and 'cols' are positive.
+     */
+    public MazeGrid newGrid(int rows, int cols) {
+        MazeGrid reused = spareGrid;
+        if (reused == null || reused.rows() != rows || reused.cols() != cols) {
+            return new MazeGrid(rows, cols);
+        }
+        spareGrid = null;
+        reused.setWallListener(null);
+        reused.reset();
+        return reused;
+    }
 
-                visited.add(neighbor.cell().toString()); // mark the chosen cell as visited
-                stack.push(neighbor.cell()); // push the chosen cell onto the stack
-            }
+    /**
+     * Keeps the grid of 'maze' to be carved again by 'newGrid', for a maze that is no longer
+     * shown, cached or otherwise used. Mazes whose walls aren't stored on the Java heap, like
+     * those read from files, are ignored, as are mazes with the current grid or a pinned one.
+     * The listener left on the grid by the worker that carved it is removed, so it no longer
+     * hears of the walls removed from the grid.
+     */
+    public void recycle(Maze maze) {
+        MazeGrid dropped = maze.grid();
+        if (dropped != grid && !pinned.contains(dropped)
+                && dropped.walls() instanceof HeapWordStore) {
+            dropped.setWallListener(null);
+            spareGrid = dropped;
         }
+    }
 
+    /**
+     * Keeps 'pinnedGrid' from being recycled until it is unpinned as many times as it was pinned,
+     * for a grid that is still read after it may stop being shown, like one being exported in the
+     * background. Requires that 'pinnedGrid' is not null.
+     */
+    public void pin(MazeGrid pinnedGrid) {
+        assert pinnedGrid != null;
+        pinned.add(pinnedGrid);
     }
 
+    /**
+     * Lets 'pinnedGrid' be recycled again once it is no longer pinned. Mazes dropped while their
+     * grid was pinned aren't recycled later. Requires that 'pinnedGrid' was pinned.
+     */
+    public void unpin(MazeGrid pinnedGrid) {
+        boolean removed = pinned.remove(pinnedGrid);
+        assert removed;
+    }
 
     /**
-     * Selects a random unvisited neighbor from the chosen cell by shuffling the list of the cell's
-     * neighbors and adding all unvisited neighbors to a seperate list. A random neighbor from that
-     * unvisited list is then chosen and returned. Returns 'null' if all neighbors have been
-     * visited. Requires that 'cell' is not null and 'visited' is not null.
+     * Updates the reference of the current maze grid to 'newGrid'
      */
-    private NeighborPair selectNeighbor(Cell cell, HashSet<String> visited) {
-        assert cell != null && visited != null;
-        shuffle(cell.neighbors()); // shuffle the array of neighbors
-        Random rand = new Random();
-        ArrayList<NeighborPair> unvisited = new ArrayList<>();
-        for (NeighborPair neighbor : cell.neighbors()) {
-            if (!visited.contains(neighbor.cell().toString())) {
-                unvisited.add(neighbor);
-            }
-        }
-        if (unvisited.isEmpty()) {
-            return null;
-        }
+    public void updateGrid(MazeGrid newGrid) {
+        this.grid = newGrid;
+    }
 
-        return unvisited.get(rand.nextInt(unvisited.size()));
+    /**
+     * Shows 'maze' as the current maze, stopping the generation of the previous one. Requires that
+     * 'maze' is not null.
+     */
+    public void showMaze(Maze maze) {
+        assert maze != null;
+        stop();
+        this.grid = maze.grid();
+        this.seed = maze.seed();
+        this.mazeAlgorithm = maze.algorithm();
+        this.statistics = maze.statistics();
     }
 
     /**
-     * Swap method that swaps two elements in a list by their index. Requires that 'arr' is not null
-     * and 'x' and 'y' are valid indices in 'arr'.
+     * Returns the current maze, with the seed and algorithim it was generated with and its
+     * statistics if any were collected
      */
-    private void swap(ArrayList<NeighborPair> arr, int x, int y) {
-        assert arr != null;
-        assert (0 <= x && x < arr.size()) && (0 <= y && y < arr.size());
-        NeighborPair temp = arr.get(x);
-        arr.set(x, arr.get(y));
-        arr.set(y, temp);
+    public Maze currentMaze() {
+        return new Maze(grid, seed, mazeAlgorithm == null ? algorithm : mazeAlgorithm, statistics);
     }
 
+    /**
+     * Updates the algorithim used for new mazes to 'newAlgorithm'. Requires that 'newAlgorithm' is
+     * not null.
+     */
+    public void setAlgorithm(Algorithm newAlgorithm) {
+        assert newAlgorithm != null;
+        this.algorithm = newAlgorithm;
+    }
 
     /**
-     * Fisher-yates shuffle. Requires that 'neighbors' is not null.
+     * Updates the delay between frames of the animation to 'newDelay' ms. Requires that
+     * 'newDelay' is not negative.
      */
-    private void shuffle(ArrayList<NeighborPair> neighbors) {
-        assert neighbors != null;
-        Random rand = new Random();
-        int n = neighbors.size();
+    public void changeDelayTime(int newDelay) {
+        assert newDelay >= 0;
+        this.frameDelay = newDelay;
+    }
 
-        for (int i = n - 1; i > 0; i--) {
-            int j = rand.nextInt(i + 1);
-            swap(neighbors, i, j);
-        }
+    /**
+     * Updates the number of steps carved in each frame of the animation to 'newStepsPerFrame'.
+     * Requires that 'newStepsPerFrame' is positive.
+     */
+    public void setStepsPerFrame(int newStepsPerFrame) {
+        assert newStepsPerFrame > 0;
+        this.stepsPerFrame = newStepsPerFrame;
     }
 
+    /**
+     * Background task carving one maze. When animated it records the walls removed by each frame's
+     * steps and publishes them as one batch, which the event dispatch thread hands to 'cellGrid'
+     * to redraw only the cells around them. The walls removed are also counted in the statistics
+     * of the maze, if it has any. Every generation is recorded as a 'GenerationEvent'
+     * and, once complete, in the metrics.
+     */
+    private class GenerationWorker extends SwingWorker<Void, long[]> implements WallListener {
+
+        /**
+         * The maze being carved, its grid and the algorithim carving it
+         */
+        private final Maze maze;
+        private final MazeGrid grid;
+        private final MazeAlgorithm generation;
+        private final MazeStatistics statistics;
+        private final boolean animated;
+
+        /**
+         * The walls removed since the last batch was published, each as 'cell << 2 | dir'
+         */
+        private long[] carved;
+        private int carvedCount;
+
+        /**
+         * The steps taken, the ns taken and the bytes allocated by the generation, read by 'done'
+         * once it has finished
+         */
+        private long steps;
+        private long nanos;
+        private long allocatedBytes;
+
+        GenerationWorker(Maze maze, MazeAlgorithm generation, boolean animated) {
+            this.maze = maze;
+            this.grid = maze.grid();
+            this.generation = generation;
+            this.statistics = maze.statistics();
+            this.animated = animated;
+            this.carved = new long[16];
+        }
+
+        @Override
+        protected Void doInBackground() throws InterruptedException {
+            GenerationEvent event = new GenerationEvent();
+            event.begin();
+            long allocatedBefore = MazeMetrics.threadAllocatedBytes();
+            long start = System.nanoTime();
+            try {
+                if (animated) {
+                    animate();
+                } else {
+                    carve();
+                }
+            } finally {
+                nanos = System.nanoTime() - start;
+                allocatedBytes = allocatedBefore < 0 ? -1
+                        : MazeMetrics.threadAllocatedBytes() - allocatedBefore;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.rows = grid.rows();
+                    event.cols = grid.cols();
+                    event.algorithm = maze.algorithm().toString();
+                    event.seed = maze.seed();
+                    event.animated = animated;
+                    event.steps = steps;
+                    event.cellsVisited = generation.cellsVisited();
+                    event.completed = generation.isComplete();
+                    event.commit();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Carves the whole maze at once without notifying 'cellGrid', counting the steps unless
+         * the algorithim only runs in parallel when run at once, and stopping early if cancelled.
+         * The statistics listen to the grid directly.
+         */
+        private void carve() {
+            grid.setWallListener(statistics);
+            if (maze.algorithm() == Algorithm.TILED_BACKTRACKER) {
+                ((TiledGenerator) generation).run(this::isCancelled);
+                return;
+            }
+            boolean more = true;
+            while (more && !isCancelled()) {
+                more = generation.step();
+                steps++;
+            }
+        }
 
+        /**
+         * Carves 'stepsPerFrame' steps per frame, publishing the walls each frame removed
+         */
+        private void animate() throws InterruptedException {
+            grid.setWallListener(this);
+            boolean more = true;
+            while (more && !isCancelled()) {
+                for (int i = stepsPerFrame; i > 0 && more; i--) {
+                    more = generation.step();
+                    steps++;
+                }
+                publish(Arrays.copyOf(carved, carvedCount));
+                carvedCount = 0;
+                if (more) {
+                    Thread.sleep(frameDelay);
+                }
+            }
+        }
+
+        @Override
+        public void wallRemoved(MazeGrid changedGrid, long cell, int dir) {
+            if (carvedCount == carved.length) {
+                carved = Arrays.copyOf(carved, carvedCount * 2);
+            }
+            carved[carvedCount++] = cell << 2 | dir;
+            if (statistics != null) {
+                statistics.wallRemoved(changedGrid, cell, dir);
+            }
+        }
+
+        @Override
+        protected void process(List<long[]> batches) {
+            if (metrics != null && batches.size() > 1) {
+                // every batch is a frame, but all of them are drawn by the same paint
+                metrics.framesDropped(batches.size() - 1);
+            }
+            for (long[] batch : batches) {
+                for (long wall : batch) {
+                    cellGrid.wallRemoved(grid, wall >>> 2, (int) (wall & 3));
+                }
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            if (worker == this) {
+                worker = null;
+                if (generatingListener != null) {
+                    generatingListener.run();
+                }
+            }
+            try {
+                get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Maze generation failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            spare = generation;
+            spareAlgorithm = maze.algorithm();
+            if (statistics != null) {
+                statistics.finish(generation);
+            }
+            if (metrics != null) {
+                metrics.generationCompleted(nanos, steps, generation.cellsVisited(),
+                        generation.peakStackDepth(), allocatedBytes);
+            }
+            if (completionListener != null) {
+                completionListener.accept(maze, animated ? -1 : nanos);
+            }
+            if (!animated) {
+                cellGrid.redraw(grid);
+            }
+        }
+    }
 }
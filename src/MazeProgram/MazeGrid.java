@@ -0,0 +1,355 @@
+package MazeProgram;
+
+/**
+ * Compact model of a maze grid. Every cell only stores whether its right and bottom walls exist,
+ * packed as 2 bits per cell into a 'WordStore' (32 cells per word). A cell's top and left walls
+ * are the bottom and right walls of the cells above and to the left of it, and the outer border of
+ * the grid is always walled. Cells are addressed by their 'long' index 'row * cols + col', so
+ * neighbors are found with index arithmetic instead of stored references, and grids may hold more
+ * cells than fit in an 'int'.
+ */
+public class MazeGrid {
+
+    /**
+     * Directions of a cell's walls and neighbors, in the same top [0], right [1], bottom [2], left
+     * [3] order the walls have always used
+     */
+    public static final int TOP = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int LEFT = 3;
+
+    /**
+     * Bit offsets of the stored walls within a cell's 2 bits
+     */
+    private static final int RIGHT_BIT = 0;
+    private static final int BOTTOM_BIT = 1;
+
+    /**
+     * The most cells a grid may have to be carved by algorithims using per cell arrays
+     */
+    private static final int MAX_ARRAY_CELLS = Integer.MAX_VALUE - 8;
+
+    /**
+     * Dimensions of the grid
+     */
+    private final int rows;
+    private final int cols;
+
+    /**
+     * The packed right/bottom wall bits of every cell
+     */
+    private final WordStore walls;
+
+    /**
+     * The listener notified of every removed wall, or null if there is none
+     */
+    private WallListener listener;
+
+    /**
+     * Constructs a new grid of 'rows' by 'cols' cells on the Java heap with every wall intact.
+     * Requires that 'rows' and 'cols' are positive.
+     */
+    public MazeGrid(int rows, int cols) {
+        this(rows, cols, new HeapWordStore(wordCount(rows, cols)));
+    }
+
+    /**
+     * Constructs a new grid of 'rows' by 'cols' cells with every wall intact, storing the walls in
+     * 'walls'. Requires that 'rows' and 'cols' are positive and 'walls' holds at least
+     * 'wordCount(rows, cols)' words.
+     */
+    public MazeGrid(int rows, int cols, WordStore walls) {
+        this(rows, cols, walls, true);
+    }
+
+    /**
+     * Constructs a new grid of 'rows' by 'cols' cells storing the walls in 'walls', restoring
+     * every wall first if 'reset' is true
+     */
+    private MazeGrid(int rows, int cols, WordStore walls, boolean reset) {
+        assert rows > 0 && cols > 0;
+        assert walls != null && walls.size() >= wordCount(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = walls;
+        if (reset) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns a grid of 'rows' by 'cols' cells over walls already stored in 'walls', such as those
+     * of a maze read from a file, leaving them as they are. Requires that 'rows' and 'cols' are
+     * positive and 'walls' holds at least 'wordCount(rows, cols)' words.
+     */
+    public static MazeGrid wrap(int rows, int cols, WordStore walls) {
+        return new MazeGrid(rows, cols, walls, false);
+    }
+
+    /**
+     * Returns the number of words needed to store the walls of a 'rows' by 'cols' grid
+     */
+    public static long wordCount(int rows, int cols) {
+        return ((long) rows * cols + 31) >>> 5;
+    }
+
+    /**
+     * Returns the store holding the packed walls of the grid
+     */
+    public WordStore walls() {
+        return walls;
+    }
+
+    /**
+     * Restores every wall of the grid in place, so it can be carved again without allocating a
+     * new grid
+     */
+    public void reset() {
+        walls.fill(-1L);
+    }
+
+    /**
+     * Sets the listener notified of every wall removed from now on to 'newListener', or removes it
+     * if 'newListener' is null
+     */
+    public void setWallListener(WallListener newListener) {
+        this.listener = newListener;
+    }
+
+    /**
+     * Returns the number of rows in the grid
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the grid
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of cells in the grid
+     */
+    public long cellCount() {
+        return (long) rows * cols;
+    }
+
+    /**
+     * Returns the index of the cell at 'row' and 'col'
+     */
+    public long index(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    /**
+     * Returns the row of the cell at index 'cell'
+     */
+    public int row(long cell) {
+        return (int) (cell / cols);
+    }
+
+    /**
+     * Returns the column of the cell at index 'cell'
+     */
+    public int col(long cell) {
+        return (int) (cell % cols);
+    }
+
+    /**
+     * Returns the direction opposite to 'dir'
+     */
+    public static int opposite(int dir) {
+        return dir ^ 2;
+    }
+
+    /**
+     * Returns the difference between the index of a cell and the index of its neighbor in
+     * direction 'dir'
+     */
+    public long offset(int dir) {
+        switch (dir) {
+            case TOP:
+                return -cols;
+            case RIGHT:
+                return 1;
+            case BOTTOM:
+                return cols;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the index of the neighbor of 'cell' in direction 'dir', or -1 if 'cell' lies on the
+     * border in that direction
+     */
+    public long neighbor(long cell, int dir) {
+        switch (dir) {
+            case TOP:
+                return cell >= cols ? cell - cols : -1;
+            case RIGHT:
+                return (cell % cols) != cols - 1 ? cell + 1 : -1;
+            case BOTTOM:
+                return cell < (long) (rows - 1) * cols ? cell + cols : -1;
+            default:
+                return (cell % cols) != 0 ? cell - 1 : -1;
+        }
+    }
+
+    /**
+     * Returns a 4-bit mask with the bit of every direction in which 'cell' has a neighbor set
+     */
+    public int neighborMask(long cell) {
+        int col = (int) (cell % cols);
+        int mask = 0;
+        if (cell >= cols) {
+            mask |= 1 << TOP;
+        }
+        if (col != cols - 1) {
+            mask |= 1 << RIGHT;
+        }
+        if (cell < (long) (rows - 1) * cols) {
+            mask |= 1 << BOTTOM;
+        }
+        if (col != 0) {
+            mask |= 1 << LEFT;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns a 4-bit mask with the bit of every direction in which 'cell' has no wall set, that is
+     * the directions that can be moved in from 'cell'
+     */
+    public int openMask(long cell) {
+        int col = (int) (cell % cols);
+        int mask = 0;
+        if (cell >= cols && !bit(cell - cols, BOTTOM_BIT)) {
+            mask |= 1 << TOP;
+        }
+        if (col != cols - 1 && !bit(cell, RIGHT_BIT)) {
+            mask |= 1 << RIGHT;
+        }
+        if (cell < (long) (rows - 1) * cols && !bit(cell, BOTTOM_BIT)) {
+            mask |= 1 << BOTTOM;
+        }
+        if (col != 0 && !bit(cell - 1, RIGHT_BIT)) {
+            mask |= 1 << LEFT;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the number of cells as an 'int', for algorithims that keep per cell data in arrays.
+     * Throws an IllegalArgumentException if there are too many cells to index an array with.
+     */
+    public int intCellCount() {
+        if (cellCount() > MAX_ARRAY_CELLS) {
+            throw new IllegalArgumentException(
+                    "Grid of " + rows + "x" + cols + " is too large for this algorithim");
+        }
+        return (int) cellCount();
+    }
+
+    /**
+     * Returns whether 'cell' has a wall in direction 'dir'. Walls on the outer border always
+     * exist.
+     */
+    public boolean hasWall(long cell, int dir) {
+        switch (dir) {
+            case TOP:
+                return cell < cols || bit(cell - cols, BOTTOM_BIT);
+            case RIGHT:
+                return (cell % cols) == cols - 1 || bit(cell, RIGHT_BIT);
+            case BOTTOM:
+                return cell >= (long) (rows - 1) * cols || bit(cell, BOTTOM_BIT);
+            default:
+                return (cell % cols) == 0 || bit(cell - 1, RIGHT_BIT);
+        }
+    }
+
+    /**
+     * Returns the 2 stored wall bits of 'cell', with bit 0 set if it has a right wall and bit 1 set
+     * if it has a bottom wall. Walls on the right and bottom border are always stored as set.
+     */
+    public int wallBits(long cell) {
+        return (int) (walls.get(cell >>> 5) >>> ((cell & 31) << 1)) & 3;
+    }
+
+    /**
+     * Removes the wall between 'cell' and its neighbor in direction 'dir'. Requires that the
+     * neighbor exists.
+     */
+    public void removeWall(long cell, int dir) {
+        assert neighbor(cell, dir) != -1;
+        switch (dir) {
+            case TOP:
+                clearBit(cell - cols, BOTTOM_BIT);
+                break;
+            case RIGHT:
+                clearBit(cell, RIGHT_BIT);
+                break;
+            case BOTTOM:
+                clearBit(cell, BOTTOM_BIT);
+                break;
+            default:
+                clearBit(cell - 1, RIGHT_BIT);
+                break;
+        }
+        if (listener != null) {
+            listener.wallRemoved(this, cell, dir);
+        }
+    }
+
+    /**
+     * Removes the wall between 'cell' and its neighbor in direction 'dir' like 'removeWall', but
+     * safe to call while other threads remove walls of other cells of the grid. Requires that the
+     * neighbor exists.
+     */
+    public void removeWallConcurrently(long cell, int dir) {
+        assert neighbor(cell, dir) != -1;
+        switch (dir) {
+            case TOP:
+                walls.clearBitsAtomically((cell - cols) >>> 5, mask(cell - cols, BOTTOM_BIT));
+                break;
+            case RIGHT:
+                walls.clearBitsAtomically(cell >>> 5, mask(cell, RIGHT_BIT));
+                break;
+            case BOTTOM:
+                walls.clearBitsAtomically(cell >>> 5, mask(cell, BOTTOM_BIT));
+                break;
+            default:
+                walls.clearBitsAtomically((cell - 1) >>> 5, mask(cell - 1, RIGHT_BIT));
+                break;
+        }
+        if (listener != null) {
+            listener.wallRemoved(this, cell, dir);
+        }
+    }
+
+    /**
+     * Returns whether bit 'offset' of 'cell' is set
+     */
+    private boolean bit(long cell, int offset) {
+        return ((walls.get(cell >>> 5) >>> (((cell & 31) << 1) + offset)) & 1L) != 0;
+    }
+
+    /**
+     * Clears bit 'offset' of 'cell'
+     */
+    private void clearBit(long cell, int offset) {
+        long word = cell >>> 5;
+        walls.set(word, walls.get(word) & ~mask(cell, offset));
+    }
+
+    /**
+     * Returns the mask of bit 'offset' of 'cell' within its word
+     */
+    private static long mask(long cell, int offset) {
+        return 1L << (((cell & 31) << 1) + offset);
+    }
+}
@@ -0,0 +1,84 @@
+package MazeProgram;
+
+import java.util.ArrayList;
+
+/**
+ * The mazes shown recently, remembered only by their keys so a long history takes up almost no
+ * memory, with a position that can be moved back and forward through them like a web browser's
+ */
+public class MazeHistory {
+
+    /**
+     * The most mazes remembered, older ones are forgotten first
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * The keys of the mazes from oldest to newest
+     */
+    private final ArrayList<MazeCache.Key> keys;
+
+    /**
+     * The index of the key of the maze shown, or -1 if there is none
+     */
+    private int position;
+
+    /**
+     * Constructs a new empty history
+     */
+    public MazeHistory() {
+        this.keys = new ArrayList<>();
+        this.position = -1;
+    }
+
+    /**
+     * Adds 'key' as the maze shown after the current one, forgetting the mazes that could be gone
+     * forward to. Requires that 'key' is not null.
+     */
+    public void add(MazeCache.Key key) {
+        assert key != null;
+        keys.subList(position + 1, keys.size()).clear();
+        keys.add(key);
+        if (keys.size() > MAX_SIZE) {
+            keys.remove(0);
+        }
+        position = keys.size() - 1;
+    }
+
+    /**
+     * Returns the key of the current maze, or null if there is none
+     */
+    public MazeCache.Key current() {
+        return position < 0 ? null : keys.get(position);
+    }
+
+    /**
+     * Returns whether there is a maze before the current one
+     */
+    public boolean hasBack() {
+        return position > 0;
+    }
+
+    /**
+     * Returns whether there is a maze after the current one
+     */
+    public boolean hasForward() {
+        return position < keys.size() - 1;
+    }
+
+    /**
+     * Moves to the maze before the current one and returns its key. Requires that 'hasBack()'.
+     */
+    public MazeCache.Key back() {
+        assert hasBack();
+        return keys.get(--position);
+    }
+
+    /**
+     * Moves to the maze after the current one and returns its key. Requires that 'hasForward()'.
+     */
+    public MazeCache.Key forward() {
+        assert hasForward();
+        return keys.get(++position);
+    }
+}
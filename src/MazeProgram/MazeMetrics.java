@@ -0,0 +1,170 @@
+package MazeProgram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of maze generation and painting, recorded by 'MazeGenerator' and 'GridCell' on the
+ * event dispatch thread and read through JMX once registered, or shown over the maze by
+ * 'MetricsOverlay'. The metrics of a generation are those of the last completed maze, while
+ * paints and dropped frames are counted since the last reset.
+ */
+public class MazeMetrics implements MazeMetricsMBean {
+
+    /**
+     * The name the metrics are registered under
+     */
+    public static final String OBJECT_NAME = "MazeProgram:type=MazeMetrics";
+
+    /**
+     * The metrics of the last completed generation. Only written by the event dispatch thread,
+     * but read by JMX from others.
+     */
+    private volatile long generations;
+    private volatile long generationNanos;
+    private volatile long steps;
+    private volatile long cellsVisited;
+    private volatile long peakStackDepth;
+    private volatile long allocatedBytes;
+
+    /**
+     * The metrics of painting since the last reset
+     */
+    private volatile long paints;
+    private volatile long paintNanos;
+    private volatile long maxPaintNanos;
+    private volatile long droppedFrames;
+
+    /**
+     * Registers the metrics with the platform MBean server, replacing any registered before.
+     * Throws an IllegalStateException if the server refuses them.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the maze metrics", e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far, or -1 if the JVM can't
+     * measure them
+     */
+    public static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Records a completed generation that took 'nanos' ns and 'newSteps' steps, visited
+     * 'newCellsVisited' cells, grew its stack to 'newPeakStackDepth' and allocated
+     * 'newAllocatedBytes' bytes
+     */
+    public void generationCompleted(long nanos, long newSteps, long newCellsVisited,
+                                    long newPeakStackDepth, long newAllocatedBytes) {
+        generationNanos = nanos;
+        steps = newSteps;
+        cellsVisited = newCellsVisited;
+        peakStackDepth = newPeakStackDepth;
+        allocatedBytes = newAllocatedBytes;
+        generations++;
+    }
+
+    /**
+     * Records a paint that took 'nanos' ns
+     */
+    public void painted(long nanos) {
+        paintNanos = nanos;
+        maxPaintNanos = Math.max(maxPaintNanos, nanos);
+        paints++;
+    }
+
+    /**
+     * Records that 'count' animation frames were merged into later ones instead of being painted
+     */
+    public void framesDropped(int count) {
+        droppedFrames += count;
+    }
+
+    @Override
+    public long getGenerations() {
+        return generations;
+    }
+
+    @Override
+    public double getGenerationTimeMillis() {
+        return generationNanos / 1e6;
+    }
+
+    @Override
+    public long getSteps() {
+        return steps;
+    }
+
+    @Override
+    public double getStepsPerSecond() {
+        long nanos = generationNanos;
+        return nanos == 0 ? 0 : steps * 1e9 / nanos;
+    }
+
+    @Override
+    public long getCellsVisited() {
+        return cellsVisited;
+    }
+
+    @Override
+    public long getPeakStackDepth() {
+        return peakStackDepth;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getPaints() {
+        return paints;
+    }
+
+    @Override
+    public double getPaintTimeMillis() {
+        return paintNanos / 1e6;
+    }
+
+    @Override
+    public double getMaxPaintTimeMillis() {
+        return maxPaintNanos / 1e6;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public void reset() {
+        generations = 0;
+        generationNanos = 0;
+        steps = 0;
+        cellsVisited = 0;
+        peakStackDepth = 0;
+        allocatedBytes = 0;
+        paints = 0;
+        paintNanos = 0;
+        maxPaintNanos = 0;
+        droppedFrames = 0;
+    }
+}
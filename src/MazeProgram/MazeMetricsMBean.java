@@ -0,0 +1,73 @@
+package MazeProgram;
+
+/**
+ * The management interface of 'MazeMetrics', through which JMX clients such as JConsole read the
+ * metrics of maze generation and painting
+ */
+public interface MazeMetricsMBean {
+
+    /**
+     * Returns the number of mazes whose generation completed
+     */
+    long getGenerations();
+
+    /**
+     * Returns the time the last completed maze took to generate in milliseconds
+     */
+    double getGenerationTimeMillis();
+
+    /**
+     * Returns the number of steps taken to generate the last completed maze, or 0 if they weren't
+     * counted because the algorithim ran all at once
+     */
+    long getSteps();
+
+    /**
+     * Returns the steps taken per second while generating the last completed maze
+     */
+    double getStepsPerSecond();
+
+    /**
+     * Returns the number of cells visited while generating the last completed maze, counting a
+     * cell again every time the algorithim came back to it, as 'MazeAlgorithm.cellsVisited'
+     */
+    long getCellsVisited();
+
+    /**
+     * Returns the deepest the backtracking stack grew while generating the last completed maze, or
+     * 0 if its algorithim doesn't report one
+     */
+    long getPeakStackDepth();
+
+    /**
+     * Returns the bytes allocated by the thread generating the last completed maze, or -1 if the
+     * JVM can't measure them
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the number of times the maze has been painted
+     */
+    long getPaints();
+
+    /**
+     * Returns the time the last paint took in milliseconds
+     */
+    double getPaintTimeMillis();
+
+    /**
+     * Returns the longest time any paint took in milliseconds
+     */
+    double getMaxPaintTimeMillis();
+
+    /**
+     * Returns the number of animation frames that were never painted on their own because the
+     * event dispatch thread fell behind and merged them with later frames
+     */
+    long getDroppedFrames();
+
+    /**
+     * Sets every metric back to zero
+     */
+    void reset();
+}
@@ -0,0 +1,76 @@
+package MazeProgram;
+
+/**
+ * A path through a maze, stored as the cell it starts at and the direction of every move along
+ * it, packed as 2 bits per move into a 'long[]'
+ */
+public class MazePath {
+
+    /**
+     * The cell the path starts at
+     */
+    private final long start;
+
+    /**
+     * The number of moves along the path
+     */
+    private final int length;
+
+    /**
+     * The directions of the moves, move 'i' is held in bits '2 * (i % 32)' and up of word 'i /
+     * 32'
+     */
+    private final long[] moves;
+
+    /**
+     * Constructs a new 'MazePath' starting at 'start' made of the first 'length' moves packed in
+     * 'moves'. Requires that 'moves' holds at least 'length' moves.
+     */
+    public MazePath(long start, int length, long[] moves) {
+        assert moves != null && (long) moves.length * 32 >= length;
+        this.start = start;
+        this.length = length;
+        this.moves = moves;
+    }
+
+    /**
+     * Returns the cell the path starts at
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Returns the number of moves along the path, one less than the number of cells on it
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the direction of move 'i'. Requires that 0 <= 'i' < 'length()'.
+     */
+    public int move(int i) {
+        assert 0 <= i && i < length;
+        return (int) (moves[i >>> 5] >>> ((i & 31) << 1)) & 3;
+    }
+
+    /**
+     * Sets the direction of move 'i' of 'moves' to 'dir'
+     */
+    static void setMove(long[] moves, int i, int dir) {
+        int shift = (i & 31) << 1;
+        moves[i >>> 5] = (moves[i >>> 5] & ~(3L << shift)) | ((long) dir << shift);
+    }
+
+    /**
+     * Returns the cell the path ends at in 'grid'
+     */
+    public long end(MazeGrid grid) {
+        long cell = start;
+        for (int i = 0; i < length; i++) {
+            cell += grid.offset(move(i));
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,148 @@
+package MazeProgram;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates mazes ahead of time on a background thread, so a new maze can be shown as soon as it
+ * is asked for. Keeps a bounded queue of mazes with random seeds for one size and algorithim,
+ * topping it up whenever one is taken. Asking for a different size or algorithim throws the queue
+ * away and starts over. Meant to be used from a single thread, such as the event dispatch thread.
+ */
+public class MazePrefetcher {
+
+    /**
+     * The number of mazes generated ahead unless changed
+     */
+    public static final int DEFAULT_DEPTH = 2;
+
+    /**
+     * The thread the mazes are generated on
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The random number generator picking the seeds of the mazes
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * The mazes being or already generated, oldest first
+     */
+    private final ArrayDeque<Future<Maze>> queue;
+
+    /**
+     * The number of mazes generated ahead
+     */
+    private int depth;
+
+    /**
+     * The size and algorithim of the mazes generated ahead, with 'algorithm' null while stopped
+     */
+    private int rows;
+    private int cols;
+    private Algorithm algorithm;
+
+    /**
+     * Constructs a new stopped 'MazePrefetcher' generating 'DEFAULT_DEPTH' mazes ahead once
+     * started
+     */
+    public MazePrefetcher() {
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "maze-prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rand = new SplittableRandom();
+        this.queue = new ArrayDeque<>();
+        this.depth = DEFAULT_DEPTH;
+    }
+
+    /**
+     * Starts generating 'rows' by 'cols' mazes with 'newAlgorithm' ahead, throwing away those
+     * generated for other settings. Requires that 'rows' and 'cols' are positive and
+     * 'newAlgorithm' is not null.
+     */
+    public void prefetch(int newRows, int newCols, Algorithm newAlgorithm) {
+        assert newRows > 0 && newCols > 0 && newAlgorithm != null;
+        if (newRows != rows || newCols != cols || newAlgorithm != algorithm) {
+            clear();
+            this.rows = newRows;
+            this.cols = newCols;
+            this.algorithm = newAlgorithm;
+        }
+        fill();
+    }
+
+    /**
+     * Returns a 'rows' by 'cols' maze generated with 'newAlgorithm' if one is ready, or null if
+     * none is, starting to generate another in its place. Mazes with other settings are thrown
+     * away. Requires that 'rows' and 'cols' are positive and 'newAlgorithm' is not null.
+     */
+    public Maze poll(int newRows, int newCols, Algorithm newAlgorithm) {
+        prefetch(newRows, newCols, newAlgorithm);
+        Future<Maze> next = queue.peek();
+        if (next == null || !next.isDone()) {
+            return null;
+        }
+        queue.remove();
+        fill();
+        try {
+            return next.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Maze generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Stops generating mazes ahead and throws away those generated
+     */
+    public void stop() {
+        clear();
+        algorithm = null;
+    }
+
+    /**
+     * Updates the number of mazes generated ahead to 'newDepth'. Requires that 'newDepth' is not
+     * negative.
+     */
+    public void setDepth(int newDepth) {
+        assert newDepth >= 0;
+        this.depth = newDepth;
+        while (queue.size() > depth) {
+            queue.removeLast().cancel(true);
+        }
+        fill();
+    }
+
+    /**
+     * Throws away every maze being or already generated
+     */
+    private void clear() {
+        for (Future<Maze> maze : queue) {
+            maze.cancel(true);
+        }
+        queue.clear();
+    }
+
+    /**
+     * Starts generating mazes until 'depth' are queued, unless stopped
+     */
+    private void fill() {
+        while (algorithm != null && queue.size() < depth) {
+            int mazeRows = rows;
+            int mazeCols = cols;
+            Algorithm mazeAlgorithm = algorithm;
+            long seed = rand.nextLong();
+            queue.add(executor.submit(
+                    () -> Maze.generate(mazeRows, mazeCols, seed, mazeAlgorithm)));
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws a view of a maze grid by writing pixels straight into an 'int' array, such as the
+ * 'DataBufferInt' of a 'BufferedImage', from the packed wall bits instead of drawing every wall
+ * with 'Graphics.drawLine'. Pixels are produced a whole row at a time: a row on a horizontal wall
+ * line fills the runs of walled cells, and the rows inside a row of cells all share the same
+ * vertical walls, so only the first of them is built and the rest are copies of it. Areas may be
+ * split into bands of rows drawn in parallel on the common 'ForkJoinPool'. When cells are smaller
+ * than 'MIN_LINE_CELL_SIZE' pixels, each pixel is instead set from the walls of the single cell
+ * under it. Given a 'DistanceField', the cells are filled with a heatmap of their distances from
+ * its start, each distance mapped through a table of 'HEAT_COLORS' colors by a multiplication.
+ */
+public final class MazeRenderer {
+
+    /**
+     * The smallest number of pixels per cell walls are drawn as lines at
+     */
+    public static final int MIN_LINE_CELL_SIZE = 3;
+
+    /**
+     * The fewest rows of pixels drawn by a single task when drawing in parallel
+     */
+    private static final int BAND_ROWS = 16;
+
+    /**
+     * The number of colors of the heatmap, from blue for the start to red for the farthest cells
+     */
+    private static final int HEAT_COLORS = 256;
+
+    /**
+     * The colors of the heatmap
+     */
+    private static final int[] HEAT_LUT = heatColors();
+
+    /**
+     * The most pixels an image made by 'image' may have
+     */
+    private static final long MAX_IMAGE_PIXELS = Integer.MAX_VALUE - 8;
+
+    /**
+     * The grid being drawn
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The number of pixels per cell and the position of the grid's top left corner in the pixels
+     */
+    private final double scale;
+    private final double viewX;
+    private final double viewY;
+
+    /**
+     * The whole number of pixels per cell and the position of the grid's top left corner used when
+     * walls are drawn as lines
+     */
+    private final int cellSize;
+    private final long originX;
+    private final long originY;
+
+    /**
+     * The colors of the walls and of the pixels behind them, with 'shades' giving the color of a
+     * pixel set from a cell with 0, 1 or 2 stored walls
+     */
+    private final int wallColor;
+    private final int background;
+    private final int[] shades;
+
+    /**
+     * The distances shown as a heatmap, or null if there is none, and the factor mapping a
+     * distance to its color in the upper half of its product with the distance
+     */
+    private final DistanceField distances;
+    private final long heatScale;
+
+    /**
+     * Constructs a new 'MazeRenderer' drawing 'grid' with 'scale' pixels per cell and its top
+     * left corner at 'viewX', 'viewY', in the colors 'wall' and 'background'. Requires that
+     * 'grid', 'wall' and 'background' are not null and 'scale' is positive.
+     */
+    public MazeRenderer(MazeGrid grid, double viewX, double viewY, double scale, Color wall,
+            Color background) {
+        this(grid, viewX, viewY, scale, wall, background, null);
+    }
+
+    /**
+     * Constructs a new 'MazeRenderer' like the one without 'distances', filling the cells with a
+     * heatmap of 'distances' unless it is null. Requires that 'distances' were computed on 'grid'.
+     */
+    public MazeRenderer(MazeGrid grid, double viewX, double viewY, double scale, Color wall,
+            Color background, DistanceField distances) {
+        assert grid != null && wall != null && background != null && scale > 0;
+        this.grid = grid;
+        this.scale = scale;
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.cellSize = (int) Math.floor(scale);
+        this.originX = (long) Math.floor(viewX);
+        this.originY = (long) Math.floor(viewY);
+        this.wallColor = wall.getRGB();
+        this.background = background.getRGB();
+        this.shades = new int[]{this.background, wall.darker().getRGB(), wallColor};
+        this.distances = distances;
+        this.heatScale = distances == null ? 0
+                : ((long) (HEAT_COLORS - 1) << 32) / Math.max(1, distances.maxDistance());
+    }
+
+    /**
+     * Returns the colors of the heatmap, going round the hues from blue to red
+     */
+    private static int[] heatColors() {
+        int[] colors = new int[HEAT_COLORS];
+        for (int i = 0; i < HEAT_COLORS; i++) {
+            colors[i] = Color.HSBtoRGB(2f / 3 * (1 - (float) i / (HEAT_COLORS - 1)), 1f, 0.8f);
+        }
+        return colors;
+    }
+
+    /**
+     * Returns the color of 'cell' in the heatmap, or the background color if it wasn't reached
+     */
+    private int heatColor(long cell) {
+        int distance = distances.distance(cell);
+        return distance < 0 ? background : HEAT_LUT[(int) (distance * heatScale >>> 32)];
+    }
+
+    /**
+     * Returns whether walls are drawn as lines at 'scale' pixels per cell
+     */
+    public static boolean drawsLines(double scale) {
+        return scale >= MIN_LINE_CELL_SIZE;
+    }
+
+    /**
+     * Returns a new image of the whole of 'grid' with cells 'cellSize' pixels wide, drawn in
+     * parallel. Throws an IllegalArgumentException if the image would have too many pixels.
+     * Requires that 'grid', 'wall' and 'background' are not null and 'cellSize' is positive.
+     */
+    public static BufferedImage image(MazeGrid grid, int cellSize, Color wall, Color background) {
+        long width = (long) grid.cols() * cellSize + 1;
+        long height = (long) grid.rows() * cellSize + 1;
+        if (width * height > MAX_IMAGE_PIXELS) {
+            throw new IllegalArgumentException(
+                    "Image of " + width + "x" + height + " pixels is too large");
+        }
+        BufferedImage image = new BufferedImage((int) width, (int) height,
+                BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        new MazeRenderer(grid, 0, 0, cellSize, wall, background)
+                .render(pixels, (int) width, new Rectangle(0, 0, (int) width, (int) height), true);
+        return image;
+    }
+
+    /**
+     * Draws the part of the grid inside 'area' into 'pixels', which holds rows 'width' pixels
+     * long, splitting 'area' into bands drawn in parallel if 'parallel' is true. Requires that
+     * 'area' lies within the pixels.
+     */
+    public void render(int[] pixels, int width, Rectangle area, boolean parallel) {
+        assert area.x >= 0 && area.y >= 0 && area.x + area.width <= width
+                && (long) (area.y + area.height) * width <= pixels.length;
+        if (area.isEmpty()) {
+            return;
+        }
+        if (parallel && area.height > BAND_ROWS) {
+            ForkJoinPool.commonPool().invoke(
+                    new BandTask(pixels, width, area, area.y, area.y + area.height));
+        } else {
+            renderRows(pixels, width, area.x, area.x + area.width, area.y,
+                    area.y + area.height);
+        }
+    }
+
+    /**
+     * Draws the pixels from 'firstX' to 'lastX' exclusive of the rows from 'firstY' to 'lastY'
+     * exclusive
+     */
+    private void renderRows(int[] pixels, int width, int firstX, int lastX, int firstY,
+            int lastY) {
+        if (drawsLines(scale)) {
+            renderLines(pixels, width, firstX, lastX, firstY, lastY);
+        } else {
+            renderCells(pixels, width, firstX, lastX, firstY, lastY);
+        }
+    }
+
+    /**
+     * Draws the walls crossing the given pixels as lines one 'cellSize' apart, matching what
+     * drawing each wall with 'Graphics.drawLine' between the corners of its cells would give
+     */
+    private void renderLines(int[] pixels, int width, int firstX, int lastX, int firstY,
+            int lastY) {
+        int rows = grid.rows();
+        // every cell whose walls, including their end points, cross the columns of pixels
+        long firstCol = Math.max(0, Math.floorDiv(firstX - originX, cellSize) - 1);
+        long lastCol = Math.min(grid.cols() - 1, Math.floorDiv(lastX - 1 - originX, cellSize));
+        if (firstCol > lastCol) {
+            for (int y = firstY; y < lastY; y++) {
+                Arrays.fill(pixels, y * width + firstX, y * width + lastX, background);
+            }
+            return;
+        }
+        int count = (int) (lastCol - firstCol + 1);
+        long mazeLeft = originX + firstCol * cellSize;
+        long mazeRight = originX + (lastCol + 1) * cellSize;
+        // the wall bits of the rows of cells above and below the current row of pixels, starting
+        // one cell before 'firstCol' for the wall on the left of it
+        byte[] above = new byte[count + 1];
+        byte[] below = new byte[count + 1];
+        // the colors inside the cells of the row below, the background unless there is a heatmap
+        int[] colors = new int[count + 1];
+        Arrays.fill(colors, background);
+        int belowRow = -1;
+        for (int y = firstY; y < lastY; y++) {
+            int offset = y * width;
+            long cellY = y - originY;
+            if (cellY < 0 || cellY > (long) rows * cellSize) {
+                Arrays.fill(pixels, offset + firstX, offset + lastX, background);
+                continue;
+            }
+            int row = (int) (cellY / cellSize);
+            long lineY = cellY % cellSize;
+            if (lineY > 1 && y > firstY) {
+                // the same vertical walls as the pixel row above, inside the same row of cells
+                System.arraycopy(pixels, offset - width + firstX, pixels, offset + firstX,
+                        lastX - firstX);
+                continue;
+            }
+            if (row != belowRow) {
+                if (row == belowRow + 1) {
+                    byte[] swap = above;
+                    above = below;
+                    below = swap;
+                } else if (row > 0) {
+                    readWalls(row - 1, firstCol, above);
+                }
+                if (row < rows) {
+                    readWalls(row, firstCol, below);
+                    if (distances != null) {
+                        readHeat(row, firstCol, colors);
+                    }
+                }
+                belowRow = row;
+            }
+            fill(pixels, offset, firstX, mazeLeft - 1, background, firstX, lastX);
+            fill(pixels, offset, mazeRight + 1, lastX - 1, background, firstX, lastX);
+            if (lineY == 0) {
+                renderLine(pixels, offset, row, above, below, colors, mazeLeft, firstX, lastX);
+            } else {
+                renderVerticals(pixels, offset, below, colors, mazeLeft, firstX, lastX);
+            }
+        }
+    }
+
+    /**
+     * Reads the wall bits of the cells of 'row' from one before 'firstCol' into 'bits', reading
+     * each word of the grid once. The cell before the first column reads as having a right wall,
+     * which is the left border.
+     */
+    private void readWalls(int row, long firstCol, byte[] bits) {
+        WordStore walls = grid.walls();
+        long cell = grid.index(row, (int) firstCol) - 1;
+        int i = 0;
+        if (firstCol == 0) {
+            bits[i++] = 1;
+            cell++;
+        }
+        long word = walls.get(cell >>> 5) >>> ((cell & 31) << 1);
+        for (; i < bits.length; i++) {
+            bits[i] = (byte) (word & 3);
+            word >>>= 2;
+            if ((++cell & 31) == 0 && i + 1 < bits.length) {
+                word = walls.get(cell >>> 5);
+            }
+        }
+    }
+
+    /**
+     * Reads the heatmap colors of the cells of 'row' from one before 'firstCol' into 'colors',
+     * the cell before the first column having the background color
+     */
+    private void readHeat(int row, long firstCol, int[] colors) {
+        long cell = grid.index(row, (int) firstCol) - 1;
+        colors[0] = firstCol == 0 ? background : heatColor(cell);
+        for (int i = 1; i < colors.length; i++) {
+            colors[i] = heatColor(cell + i);
+        }
+    }
+
+    /**
+     * Draws the line of pixels between the row of cells above 'row' and 'row', whose wall bits
+     * are 'above' and 'below' and whose insides have the colors 'colors'. The line holds the
+     * bottom walls of the row above and the corners ending the vertical walls above and below it,
+     * and where there are none, the color of the cell below.
+     */
+    private void renderLine(int[] pixels, int offset, int row, byte[] above, byte[] below,
+            int[] colors, long mazeLeft, int firstX, int lastX) {
+        boolean border = row == 0 || row == grid.rows();
+        boolean hasAbove = row > 0;
+        boolean hasBelow = row < grid.rows();
+        boolean previousWall = false;
+        long x = mazeLeft;
+        for (int i = 1; i <= above.length; i++) {
+            boolean wall = i < above.length && (border || (above[i] & 2) != 0);
+            boolean corner = wall || previousWall || (hasAbove && (above[i - 1] & 1) != 0)
+                    || (hasBelow && (below[i - 1] & 1) != 0);
+            int open = i < colors.length ? colors[i] : background;
+            fill(pixels, offset, x, x, corner ? wallColor : open, firstX, lastX);
+            if (i < above.length) {
+                fill(pixels, offset, x + 1, x + cellSize - 1, wall ? wallColor : open,
+                        firstX, lastX);
+            }
+            previousWall = wall;
+            x += cellSize;
+        }
+    }
+
+    /**
+     * Draws a line of pixels inside a row of cells with wall bits 'bits' and insides of the
+     * colors 'colors', which only crosses their vertical walls
+     */
+    private void renderVerticals(int[] pixels, int offset, byte[] bits, int[] colors,
+            long mazeLeft, int firstX, int lastX) {
+        long x = mazeLeft;
+        for (int i = 1; i <= bits.length; i++) {
+            fill(pixels, offset, x, x, (bits[i - 1] & 1) != 0 ? wallColor : colors[i - 1], firstX,
+                    lastX);
+            if (i < bits.length) {
+                fill(pixels, offset, x + 1, x + cellSize - 1, colors[i], firstX, lastX);
+            }
+            x += cellSize;
+        }
+    }
+
+    /**
+     * Sets the pixels from 'fromX' to 'toX' inclusive of the row starting at 'offset' to 'color',
+     * skipping those outside 'firstX' to 'lastX' exclusive
+     */
+    private static void fill(int[] pixels, int offset, long fromX, long toX, int color,
+            int firstX, int lastX) {
+        int from = offset + (int) Math.max(fromX, firstX);
+        int to = offset + (int) Math.min(toX + 1, lastX);
+        for (int i = from; i < to; i++) {
+            pixels[i] = color;
+        }
+    }
+
+    /**
+     * Sets each of the given pixels from the walls of the cell under it, in the wall color when
+     * the cell has both its right and bottom walls, a dimmer shade of it when it has one and the
+     * background color when it has neither. With a heatmap, pixels instead take the color of the
+     * cell's distance, as walls this small can't be told apart anyway.
+     */
+    private void renderCells(int[] pixels, int width, int firstX, int lastX, int firstY,
+            int lastY) {
+        int[] cols = new int[lastX - firstX];
+        for (int x = firstX; x < lastX; x++) {
+            long col = (long) Math.floor((x - viewX) / scale);
+            cols[x - firstX] = col < 0 || col >= grid.cols() ? -1 : (int) col;
+        }
+        for (int y = firstY; y < lastY; y++) {
+            int offset = y * width;
+            long row = (long) Math.floor((y - viewY) / scale);
+            if (row < 0 || row >= grid.rows()) {
+                Arrays.fill(pixels, offset + firstX, offset + lastX, background);
+                continue;
+            }
+            long rowStart = grid.index((int) row, 0);
+            if (distances != null) {
+                for (int x = firstX; x < lastX; x++) {
+                    int col = cols[x - firstX];
+                    pixels[offset + x] = col < 0 ? background : heatColor(rowStart + col);
+                }
+                continue;
+            }
+            for (int x = firstX; x < lastX; x++) {
+                int col = cols[x - firstX];
+                pixels[offset + x] = col < 0 ? background
+                        : shades[Integer.bitCount(grid.wallBits(rowStart + col))];
+            }
+        }
+    }
+
+    /**
+     * Draws a band of rows, splitting it in half while it is more than 'BAND_ROWS' rows high
+     */
+    private class BandTask extends RecursiveAction {
+
+        private final int[] pixels;
+        private final int width;
+        private final Rectangle area;
+        private final int firstY;
+        private final int lastY;
+
+        BandTask(int[] pixels, int width, Rectangle area, int firstY, int lastY) {
+            this.pixels = pixels;
+            this.width = width;
+            this.area = area;
+            this.firstY = firstY;
+            this.lastY = lastY;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastY - firstY > BAND_ROWS) {
+                int middle = (firstY + lastY) >>> 1;
+                invokeAll(new BandTask(pixels, width, area, firstY, middle),
+                        new BandTask(pixels, width, area, middle, lastY));
+            } else {
+                renderRows(pixels, width, area.x, area.x + area.width, firstY, lastY);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package MazeProgram;
+
+import java.util.Arrays;
+
+/**
+ * The algorithims available for solving a maze, each finding a shortest path between two cells of
+ * a 'MazeGrid' by reading its walls. They keep no objects per cell: cells are held in primitive
+ * queues and heaps, visited cells in bitsets and the direction each cell was reached from in a
+ * packed array of 2 bits per cell, so a 10^8 cell maze needs about 40 MB of working memory.
+ */
+public enum MazeSolver {
+
+    BFS("Breadth-First Search"),
+    BIDIRECTIONAL_BFS("Bidirectional BFS"),
+    A_STAR("A*");
+
+    /**
+     * The name shown to the user
+     */
+    private final String displayName;
+
+    MazeSolver(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns a shortest path from 'start' to 'goal' in 'grid', or null if 'goal' can't be
+     * reached. Requires that 'start' and 'goal' are cells of 'grid'.
+     */
+    public MazePath solve(MazeGrid grid, long start, long goal) {
+        int n = grid.intCellCount();
+        assert 0 <= start && start < n && 0 <= goal && goal < n;
+        switch (this) {
+            case BIDIRECTIONAL_BFS:
+                return bidirectionalBfs(grid, (int) start, (int) goal);
+            case A_STAR:
+                return aStar(grid, (int) start, (int) goal);
+            default:
+                return bfs(grid, (int) start, (int) goal);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Breadth-first search from 'start', visiting cells in order of their distance from it until
+     * 'goal' is reached
+     */
+    private static MazePath bfs(MazeGrid grid, int start, int goal) {
+        int n = (int) grid.cellCount();
+        long[] visited = new long[(n + 63) >>> 6];
+        long[] parents = new long[(n + 31) >>> 5];
+        IntQueue queue = new IntQueue();
+        set(visited, start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            if (cell == goal) {
+                return trace(grid, parents, start, goal);
+            }
+            for (int open = grid.openMask(cell); open != 0; open &= open - 1) {
+                int dir = Integer.numberOfTrailingZeros(open);
+                int next = (int) (cell + grid.offset(dir));
+                if (!get(visited, next)) {
+                    set(visited, next);
+                    setDirection(parents, next, dir);
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Breadth-first search from both 'start' and 'goal' at once, always expanding a whole level of
+     * the side with the smaller frontier, until the two searches meet. Visits far fewer cells than
+     * a single search when the path is long.
+     */
+    private static MazePath bidirectionalBfs(MazeGrid grid, int start, int goal) {
+        if (start == goal) {
+            return new MazePath(start, 0, new long[0]);
+        }
+        int n = (int) grid.cellCount();
+        long[] visitedFromStart = new long[(n + 63) >>> 6];
+        long[] visitedFromGoal = new long[(n + 63) >>> 6];
+        // each cell is only ever reached by one of the searches, so they can share this
+        long[] parents = new long[(n + 31) >>> 5];
+        IntQueue fromStart = new IntQueue();
+        IntQueue fromGoal = new IntQueue();
+        set(visitedFromStart, start);
+        fromStart.add(start);
+        set(visitedFromGoal, goal);
+        fromGoal.add(goal);
+
+        while (!fromStart.isEmpty() && !fromGoal.isEmpty()) {
+            boolean forward = fromStart.size() <= fromGoal.size();
+            IntQueue queue = forward ? fromStart : fromGoal;
+            long[] own = forward ? visitedFromStart : visitedFromGoal;
+            long[] other = forward ? visitedFromGoal : visitedFromStart;
+            for (int level = queue.size(); level > 0; level--) {
+                int cell = queue.poll();
+                for (int open = grid.openMask(cell); open != 0; open &= open - 1) {
+                    int dir = Integer.numberOfTrailingZeros(open);
+                    int next = (int) (cell + grid.offset(dir));
+                    if (get(other, next)) { // the searches meet between 'cell' and 'next'
+                        return forward
+                                ? join(grid, parents, start, goal, cell, dir)
+                                : join(grid, parents, start, goal, next, MazeGrid.opposite(dir));
+                    }
+                    if (!get(own, next)) {
+                        set(own, next);
+                        setDirection(parents, next, dir);
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A* search from 'start' guided by the Manhattan distance to 'goal'. Cells wait in a binary
+     * heap of 'long's holding the estimated length of the path through them in the upper half and
+     * the cell in the lower half, so the distance from 'start' doesn't need to be stored per cell
+     * as it is the estimate less the Manhattan distance. Perfect mazes have a single path to every
+     * cell, so each cell is only pushed once.
+     */
+    private static MazePath aStar(MazeGrid grid, int start, int goal) {
+        int n = (int) grid.cellCount();
+        int goalRow = grid.row(goal);
+        int goalCol = grid.col(goal);
+        long[] reached = new long[(n + 63) >>> 6];
+        long[] parents = new long[(n + 31) >>> 5];
+        LongHeap heap = new LongHeap();
+        set(reached, start);
+        heap.add((long) manhattan(grid, start, goalRow, goalCol) << 32 | start);
+        while (!heap.isEmpty()) {
+            long entry = heap.poll();
+            int cell = (int) entry;
+            if (cell == goal) {
+                return trace(grid, parents, start, goal);
+            }
+            int distance = (int) (entry >>> 32) - manhattan(grid, cell, goalRow, goalCol);
+            for (int open = grid.openMask(cell); open != 0; open &= open - 1) {
+                int dir = Integer.numberOfTrailingZeros(open);
+                int next = (int) (cell + grid.offset(dir));
+                if (!get(reached, next)) {
+                    set(reached, next);
+                    setDirection(parents, next, dir);
+                    long estimate = distance + 1 + manhattan(grid, next, goalRow, goalCol);
+                    heap.add(estimate << 32 | next);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the Manhattan distance between 'cell' and the cell at 'row' and 'col'
+     */
+    private static int manhattan(MazeGrid grid, int cell, int row, int col) {
+        return Math.abs(grid.row(cell) - row) + Math.abs(grid.col(cell) - col);
+    }
+
+    /**
+     * Returns the path from 'start' to 'goal' found by following 'parents' back from 'goal'
+     */
+    private static MazePath trace(MazeGrid grid, long[] parents, int start, int goal) {
+        int length = depth(grid, parents, goal, start);
+        long[] moves = new long[(length + 31) >>> 5];
+        int cell = goal;
+        for (int i = length - 1; i >= 0; i--) {
+            int dir = getDirection(parents, cell);
+            MazePath.setMove(moves, i, dir);
+            cell -= (int) grid.offset(dir);
+        }
+        return new MazePath(start, length, moves);
+    }
+
+    /**
+     * Returns the path from 'start' to 'goal' through the move in direction 'dir' from 'meet',
+     * a cell reached from 'start', to a cell reached from 'goal'
+     */
+    private static MazePath join(MazeGrid grid, long[] parents, int start, int goal, int meet,
+                                 int dir) {
+        int other = (int) (meet + grid.offset(dir));
+        int startLength = depth(grid, parents, meet, start);
+        int goalLength = depth(grid, parents, other, goal);
+        int length = startLength + 1 + goalLength;
+        long[] moves = new long[(length + 31) >>> 5];
+
+        int cell = meet;
+        for (int i = startLength - 1; i >= 0; i--) {
+            int back = getDirection(parents, cell);
+            MazePath.setMove(moves, i, back);
+            cell -= (int) grid.offset(back);
+        }
+        MazePath.setMove(moves, startLength, dir);
+        cell = other;
+        for (int i = startLength + 1; i < length; i++) {
+            // cells reached from 'goal' store the move towards them, the path takes it backwards
+            int toward = MazeGrid.opposite(getDirection(parents, cell));
+            MazePath.setMove(moves, i, toward);
+            cell += (int) grid.offset(toward);
+        }
+        return new MazePath(start, length, moves);
+    }
+
+    /**
+     * Returns the number of moves from 'root' to 'cell' found by following 'parents' back
+     */
+    private static int depth(MazeGrid grid, long[] parents, int cell, int root) {
+        int depth = 0;
+        while (cell != root) {
+            cell -= (int) grid.offset(getDirection(parents, cell));
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Returns whether bit 'i' of 'bits' is set
+     */
+    private static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Sets bit 'i' of 'bits'
+     */
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * Returns the direction 'cell' was reached in, stored as 2 bits per cell in 'parents'
+     */
+    private static int getDirection(long[] parents, int cell) {
+        return (int) (parents[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+    }
+
+    /**
+     * Stores 'dir' as the direction 'cell' was reached in
+     */
+    private static void setDirection(long[] parents, int cell, int dir) {
+        parents[cell >>> 5] |= (long) dir << ((cell & 31) << 1); // each cell is only set once
+    }
+
+    /**
+     * A first-in first-out queue of 'int's in a growable ring buffer
+     */
+    private static final class IntQueue {
+
+        private int[] items = new int[1024];
+        private int head;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int item) {
+            if (size == items.length) {
+                int[] larger = new int[items.length * 2];
+                for (int i = 0; i < size; i++) {
+                    larger[i] = items[(head + i) & (items.length - 1)];
+                }
+                items = larger;
+                head = 0;
+            }
+            items[(head + size) & (items.length - 1)] = item;
+            size++;
+        }
+
+        int poll() {
+            int item = items[head];
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return item;
+        }
+    }
+
+    /**
+     * A binary min-heap of 'long's in a growable array
+     */
+    private static final class LongHeap {
+
+        private long[] items = new long[1024];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(long item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            int i = size++;
+            while (i > 0 && items[(i - 1) >>> 1] > item) {
+                items[i] = items[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            items[i] = item;
+        }
+
+        long poll() {
+            long top = items[0];
+            long last = items[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && items[child + 1] < items[child]) {
+                    child++;
+                }
+                if (items[child] >= last) {
+                    break;
+                }
+                items[i] = items[child];
+                i = child;
+            }
+            items[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package MazeProgram;
+
+/**
+ * Statistics of a maze accumulated while it is carved, by listening to every wall removed from
+ * its grid. The number of cells with each number of open walls is kept up to date from the walls
+ * of the two cells each removal joins, giving the dead ends (one open wall) and junctions (three
+ * or four), so listening costs a few reads of the grid per removal. A corridor is a path between
+ * two cells that aren't simply part of a passage, that is between dead ends and junctions,
+ * through cells with exactly two open walls. Corridors can't be followed as walls are removed
+ * without walking along them on every removal, so their histogram is only found when first asked
+ * for, by walking every corridor of the grid once, and kept once the maze is finished.
+ *
+ * Keeps no memory per cell beyond the walls of the grid. Requires that every removal joins two
+ * cells that weren't yet connected, as when carving a perfect maze, and that the walls are
+ * removed from one thread at a time.
+ */
+public class MazeStatistics implements WallListener {
+
+    /**
+     * The length in cells from which corridors are counted together in the last bucket of the
+     * histogram
+     */
+    public static final int MAX_CORRIDOR_LENGTH = 64;
+
+    /**
+     * The grid the statistics are of
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The number of cells with 0 to 4 open walls
+     */
+    private final long[] degreeCounts;
+
+    /**
+     * The number of corridors of each length in walls between their ends, all of those at least
+     * 'MAX_CORRIDOR_LENGTH' long in the last entry, or null until the maze is finished and they
+     * have been found. Entry 0 is unused.
+     */
+    private long[] corridors;
+
+    /**
+     * Whether the maze is finished, after which its corridors don't change
+     */
+    private boolean finished;
+
+    /**
+     * The deepest the stack of the algorithim carving the maze grew, once known
+     */
+    private long maxStackDepth;
+
+    /**
+     * Constructs new statistics for carving 'grid', which must have every wall intact
+     */
+    public MazeStatistics(MazeGrid grid) {
+        this.grid = grid;
+        this.degreeCounts = new long[5];
+        degreeCounts[0] = grid.cellCount();
+    }
+
+    /**
+     * Updates the statistics for the wall between 'cell' and its neighbor in direction 'dir' that
+     * has just been removed from 'grid'
+     */
+    @Override
+    public void wallRemoved(MazeGrid grid, long cell, int dir) {
+        int cellDegree = Integer.bitCount(openMask(grid, cell)) - 1;
+        int neighborDegree = Integer.bitCount(openMask(grid, cell + grid.offset(dir))) - 1;
+        degreeCounts[cellDegree]--;
+        degreeCounts[cellDegree + 1]++;
+        degreeCounts[neighborDegree]--;
+        degreeCounts[neighborDegree + 1]++;
+    }
+
+    /**
+     * Returns the number of walls along the corridor leaving 'cell' in direction 'dir' until it
+     * reaches a cell that isn't part of a passage, and sets 'end[0]' to that cell
+     */
+    private static int walk(MazeGrid grid, long cell, int dir, long[] end) {
+        int length = 1;
+        cell += grid.offset(dir);
+        int open = openMask(grid, cell);
+        while (Integer.bitCount(open) == 2) {
+            dir = Integer.numberOfTrailingZeros(open & ~(1 << MazeGrid.opposite(dir)));
+            cell += grid.offset(dir);
+            open = openMask(grid, cell);
+            length++;
+        }
+        end[0] = cell;
+        return length;
+    }
+
+    /**
+     * Returns the same mask of the directions in which 'cell' has no wall as 'grid.openMask',
+     * without the division finding its column. Walls on the border are never removed, so the
+     * right wall of the cell before the first cell of a row is always there, as are the right and
+     * bottom walls of the last column and row.
+     */
+    private static int openMask(MazeGrid grid, long cell) {
+        int bits = grid.wallBits(cell);
+        int mask = (~bits & 1) << MazeGrid.RIGHT | (~bits >> 1 & 1) << MazeGrid.BOTTOM;
+        if (cell >= grid.cols() && (grid.wallBits(cell - grid.cols()) & 2) == 0) {
+            mask |= 1 << MazeGrid.TOP;
+        }
+        if (cell > 0 && (grid.wallBits(cell - 1) & 1) == 0) {
+            mask |= 1 << MazeGrid.LEFT;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the histogram of the corridors of the grid, walking each of them from its end with
+     * the lower index. Kept once the maze is finished, and found again on every call before.
+     */
+    private long[] corridors() {
+        if (corridors != null) {
+            return corridors;
+        }
+        long[] found = new long[MAX_CORRIDOR_LENGTH + 1];
+        long[] end = new long[1];
+        for (long cell = 0, n = grid.cellCount(); cell < n; cell++) {
+            int open = openMask(grid, cell);
+            if (Integer.bitCount(open) == 2) {
+                continue;
+            }
+            for (; open != 0; open &= open - 1) {
+                int length = walk(grid, cell, Integer.numberOfTrailingZeros(open), end);
+                if (end[0] > cell) {
+                    found[Math.min(length, MAX_CORRIDOR_LENGTH)]++;
+                }
+            }
+        }
+        if (finished) {
+            corridors = found;
+        }
+        return found;
+    }
+
+    /**
+     * Records the deepest the stack of 'algorithm', which carved the maze, grew, and that the
+     * maze is finished
+     */
+    public void finish(MazeAlgorithm algorithm) {
+        this.maxStackDepth = algorithm.peakStackDepth();
+        this.finished = true;
+    }
+
+    /**
+     * Returns the number of dead ends, cells with a single open wall
+     */
+    public long deadEnds() {
+        return degreeCounts[1];
+    }
+
+    /**
+     * Returns the number of junctions, cells with three or four open walls
+     */
+    public long junctions() {
+        return degreeCounts[3] + degreeCounts[4];
+    }
+
+    /**
+     * Returns the average number of ways on from a junction when entering it, or 0 if there are
+     * no junctions
+     */
+    public double branchingFactor() {
+        long junctions = junctions();
+        return junctions == 0 ? 0 : (2.0 * degreeCounts[3] + 3.0 * degreeCounts[4]) / junctions;
+    }
+
+    /**
+     * Returns the number of corridors 'length' walls long, or at least that long if 'length' is
+     * 'MAX_CORRIDOR_LENGTH'. The corridors are found by a walk along every one of them the first
+     * time they are asked for. Requires that 1 <= 'length' <= 'MAX_CORRIDOR_LENGTH' and that no
+     * walls are being removed from the grid meanwhile.
+     */
+    public long corridors(int length) {
+        assert 1 <= length && length <= MAX_CORRIDOR_LENGTH;
+        return corridors()[length];
+    }
+
+    /**
+     * Returns the deepest the stack of the algorithim that carved the maze grew, or 0 if it has no
+     * such stack or the maze isn't finished
+     */
+    public long maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Returns the statistics as a few lines of text, listing the corridors by length up to the
+     * longest found. Requires that no walls are being removed from the grid meanwhile.
+     */
+    @Override
+    public String toString() {
+        long[] corridors = corridors();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Dead ends: %,d%n", deadEnds()));
+        text.append(String.format("Junctions: %,d%n", junctions()));
+        text.append(String.format("Branching factor: %.3f%n", branchingFactor()));
+        text.append(String.format("Max stack depth: %,d%n", maxStackDepth));
+        text.append("Corridors by length:");
+        for (int length = 1; length <= MAX_CORRIDOR_LENGTH; length++) {
+            if (corridors[length] != 0) {
+                text.append(String.format("%n  %s%d: %,d",
+                        length == MAX_CORRIDOR_LENGTH ? ">=" : "", length, corridors[length]));
+            }
+        }
+        return text.toString();
+    }
+}
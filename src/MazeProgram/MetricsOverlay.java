@@ -0,0 +1,104 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Small panel showing the current 'MazeMetrics' as text over the maze, refreshed a few times a
+ * second while it is visible. It is opaque so that refreshing it never repaints the maze below.
+ */
+public class MetricsOverlay extends JComponent {
+
+    /**
+     * The ms between refreshes of the text
+     */
+    private static final int REFRESH_DELAY = 250;
+
+    /**
+     * The pixels between the text and the edges of the panel
+     */
+    private static final int PADDING = 4;
+
+    /**
+     * A line at least as wide as any shown, used to size the panel
+     */
+    private static final String WIDEST_LINE = "Paint 000.00 ms, max 000.00 ms, 0000000 paints";
+
+    /**
+     * The number of lines shown
+     */
+    private static final int LINE_COUNT = 5;
+
+    /**
+     * The metrics shown
+     */
+    private final MazeMetrics metrics;
+
+    /**
+     * Repaints the panel while it is visible
+     */
+    private final Timer refresh;
+
+    /**
+     * Constructs a new hidden 'MetricsOverlay' showing 'metrics'. Requires that 'metrics' is not
+     * null.
+     */
+    public MetricsOverlay(MazeMetrics metrics) {
+        assert metrics != null;
+        this.metrics = metrics;
+        this.refresh = new Timer(REFRESH_DELAY, e -> repaint());
+        setOpaque(true);
+        setBackground(Color.DARK_GRAY);
+        setForeground(Color.WHITE);
+        super.setVisible(false);
+    }
+
+    /**
+     * Shows or hides the panel, refreshing it only while it is shown
+     */
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+        if (visible) {
+            refresh.start();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics font = getFontMetrics(getFont());
+        return new Dimension(font.stringWidth(WIDEST_LINE) + 2 * PADDING,
+                font.getHeight() * LINE_COUNT + 2 * PADDING);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setColor(getForeground());
+        FontMetrics font = g.getFontMetrics();
+        String[] lines = {
+                String.format("Generation %.2f ms, %,.0f steps/s",
+                        metrics.getGenerationTimeMillis(), metrics.getStepsPerSecond()),
+                String.format("Steps %,d, cells visited %,d", metrics.getSteps(),
+                        metrics.getCellsVisited()),
+                String.format("Peak stack %,d, allocated %,d KB", metrics.getPeakStackDepth(),
+                        metrics.getAllocatedBytes() >> 10),
+                String.format("Paint %.2f ms, max %.2f ms, %,d paints",
+                        metrics.getPaintTimeMillis(), metrics.getMaxPaintTimeMillis(),
+                        metrics.getPaints()),
+                String.format("Dropped frames %,d", metrics.getDroppedFrames())
+        };
+        int y = PADDING + font.getAscent();
+        for (String line : lines) {
+            g.drawString(line, PADDING, y);
+            y += font.getHeight();
+        }
+    }
+}
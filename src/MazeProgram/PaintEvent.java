@@ -0,0 +1,26 @@
+package MazeProgram;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one paint of the maze by 'GridCell'
+ */
+@Name("MazeProgram.Paint")
+@Label("Maze Paint")
+@Category("Maze")
+@Description("Paint of the visible part of the maze")
+public class PaintEvent extends jdk.jfr.Event {
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Full Redraw")
+    @Description("Whether every visible wall was drawn again rather than only copied to the screen")
+    boolean fullRedraw;
+}
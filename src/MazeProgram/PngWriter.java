@@ -0,0 +1,313 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams images of mazes as PNG files without ever holding the whole image, so mazes can be
+ * exported at sizes no 'BufferedImage' could hold. The image is split into bands of rows that
+ * are drawn by a 'MazeRenderer', packed into 1 bit per pixel indexing a palette of the background
+ * and wall colors, and compressed, each band on its own thread. Every band is compressed by its
+ * own 'Deflater' and flushed to a byte boundary, so the compressed bands simply follow one
+ * another in the single zlib stream of the image, whose checksum is combined from those of the
+ * bands. Only a bounded number of bands are drawn ahead of the one being written, so memory
+ * stays at a few bands whatever the size of the image.
+ */
+public final class PngWriter {
+
+    /**
+     * The most bands compressed ahead of the one being written per thread, unless another number
+     * is given
+     */
+    public static final int DEFAULT_PENDING_PER_THREAD = 4;
+
+    /**
+     * The number of pixels per cell of images exported unless another number is given
+     */
+    public static final int DEFAULT_CELL_SIZE = 8;
+
+    /**
+     * The fewest pixels in a band, unless a single row of pixels is larger
+     */
+    private static final int BAND_PIXELS = 1 << 23;
+
+    /**
+     * The signature every PNG file starts with
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The zlib header of a deflate stream with a 32 KB window, which starts the image data
+     */
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+
+    /**
+     * The modulus of the Adler-32 checksum
+     */
+    private static final int ADLER_BASE = 65521;
+
+    private PngWriter() {
+    }
+
+    /**
+     * Writes an image of 'grid' with cells 'cellSize' pixels wide, its walls in 'wall' over
+     * 'background', to 'file', which is created or overwritten, compressing the bands on
+     * 'executor'. Throws an IllegalArgumentException if the image is too large for a PNG file.
+     * Requires that 'grid', 'wall', 'background', 'file' and 'executor' are not null and
+     * 'cellSize' is at least 'MazeRenderer.MIN_LINE_CELL_SIZE'.
+     */
+    public static void write(MazeGrid grid, int cellSize, Color wall, Color background, Path file,
+                             ExecutorService executor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(grid, cellSize, wall, background, channel, executor,
+                    Runtime.getRuntime().availableProcessors() * DEFAULT_PENDING_PER_THREAD);
+        }
+    }
+
+    /**
+     * Writes an image of 'grid' like 'write(grid, cellSize, wall, background, file, executor)'
+     * to 'out', with at most 'maxPending' bands drawn or being drawn that haven't been written
+     * yet. Requires that 'maxPending' is positive and 'out' is not null.
+     */
+    public static void write(MazeGrid grid, int cellSize, Color wall, Color background,
+                             WritableByteChannel out, ExecutorService executor, int maxPending)
+            throws IOException {
+        assert grid != null && wall != null && background != null && out != null
+                && executor != null && maxPending > 0;
+        assert MazeRenderer.drawsLines(cellSize);
+        long width = (long) grid.cols() * cellSize + 1;
+        long height = (long) grid.rows() * cellSize + 1;
+        if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Image of " + width + "x" + height + " pixels is too large for a PNG file");
+        }
+        int bandRows = (int) Math.max(1, Math.min(height, BAND_PIXELS / width));
+        int bands = (int) ((height + bandRows - 1) / bandRows);
+
+        writeFully(out, ByteBuffer.wrap(SIGNATURE));
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt((int) width).putInt((int) height);
+        header.put((byte) 1); // bits per pixel
+        header.put((byte) 3); // indexed by a palette
+        header.put((byte) 0).put((byte) 0).put((byte) 0); // deflate, no filters, no interlacing
+        writeChunk(out, "IHDR", header.array(), 0, header.capacity(), null, null);
+        byte[] palette = {
+                (byte) background.getRed(), (byte) background.getGreen(),
+                (byte) background.getBlue(),
+                (byte) wall.getRed(), (byte) wall.getGreen(), (byte) wall.getBlue()};
+        writeChunk(out, "PLTE", palette, 0, palette.length, null, null);
+
+        ArrayDeque<Future<Band>> pending = new ArrayDeque<>(maxPending);
+        int submitted = 0;
+        long adler = 1; // the checksum of no data
+        try {
+            for (int written = 0; written < bands; written++) {
+                while (submitted < bands && pending.size() < maxPending) {
+                    int firstY = submitted * bandRows;
+                    int lastY = (int) Math.min(height, (long) firstY + bandRows);
+                    boolean last = ++submitted == bands;
+                    pending.add(executor.submit(() -> encode(grid, cellSize, wall, background,
+                            (int) width, firstY, lastY, last)));
+                }
+                Band band = await(pending.remove());
+                adler = combineAdler(adler, band.adler, band.rawLength);
+                byte[] trailer = null;
+                if (written == bands - 1) {
+                    trailer = ByteBuffer.allocate(4).putInt((int) adler).array();
+                }
+                writeChunk(out, "IDAT", band.data, 0, band.length,
+                        written == 0 ? ZLIB_HEADER : null, trailer);
+            }
+        } finally {
+            for (Future<Band> future : pending) {
+                future.cancel(true);
+            }
+        }
+        writeChunk(out, "IEND", new byte[0], 0, 0, null, null);
+    }
+
+    /**
+     * The compressed rows of a band, 'length' bytes of 'data', with the Adler-32 checksum and
+     * length of the rows before compression
+     */
+    private record Band(byte[] data, int length, long adler, long rawLength) {
+    }
+
+    /**
+     * Draws the rows of pixels from 'firstY' to 'lastY' exclusive of the image 'width' pixels
+     * wide, packs them into PNG rows and compresses them, ending the compressed stream if 'last'
+     * is true and otherwise flushing it to a byte boundary. Only the rows on and just below wall
+     * lines are drawn, a row at a time, the others being copies of the packed row above.
+     */
+    private static Band encode(MazeGrid grid, int cellSize, Color wall, Color background,
+                               int width, int firstY, int lastY, boolean last) {
+        int rows = lastY - firstY;
+        int rowBytes = 1 + (width + 7) / 8; // a filter type byte, 0 for none, then 8 pixels a byte
+        byte[] raw = new byte[rowBytes * rows];
+        int[] pixels = new int[width];
+        int wallColor = wall.getRGB();
+        for (int y = 0; y < rows; y++) {
+            int offset = y * rowBytes;
+            if (y > 0 && (firstY + y) % cellSize > 1) {
+                // inside a row of cells, below the pixel after the wall line, rows only cross
+                // vertical walls and repeat the row above
+                System.arraycopy(raw, offset - rowBytes, raw, offset, rowBytes);
+                continue;
+            }
+            new MazeRenderer(grid, 0, -(firstY + y), cellSize, wall, background)
+                    .render(pixels, width, new Rectangle(0, 0, width, 1), false);
+            for (int x = 0; x < width; x++) {
+                if (pixels[x] == wallColor) {
+                    raw[offset + 1 + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+        Adler32 adler = new Adler32();
+        adler.update(raw);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] data = new byte[Math.max(64, raw.length / 8)];
+            int length = 0;
+            while (true) {
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                length += last ? deflater.deflate(data, length, data.length - length)
+                        : deflater.deflate(data, length, data.length - length,
+                        Deflater.SYNC_FLUSH);
+                // a flush is complete once it leaves room in the output
+                if (last ? deflater.finished() : length < data.length) {
+                    break;
+                }
+            }
+            return new Band(data, length, adler.getValue(), raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the Adler-32 checksum of data with checksum 'first' followed by 'secondLength' bytes
+     * with checksum 'second', as zlib's 'adler32_combine' does
+     */
+    private static long combineAdler(long first, long second, long secondLength) {
+        long remainder = secondLength % ADLER_BASE;
+        long sum1 = first & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (first >>> 16 & 0xFFFF) + (second >>> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return sum2 << 16 | sum1;
+    }
+
+    /**
+     * Writes a chunk of type 'type' holding 'prefix', 'length' bytes of 'data' from 'offset' and
+     * 'suffix', where 'prefix' and 'suffix' may be null
+     */
+    private static void writeChunk(WritableByteChannel out, String type, byte[] data, int offset,
+                                   int length, byte[] prefix, byte[] suffix) throws IOException {
+        int prefixLength = prefix == null ? 0 : prefix.length;
+        int suffixLength = suffix == null ? 0 : suffix.length;
+        ByteBuffer chunk = ByteBuffer.allocate(12 + prefixLength + length + suffixLength);
+        chunk.putInt(prefixLength + length + suffixLength);
+        chunk.put(type.getBytes(StandardCharsets.US_ASCII));
+        if (prefix != null) {
+            chunk.put(prefix);
+        }
+        chunk.put(data, offset, length);
+        if (suffix != null) {
+            chunk.put(suffix);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(chunk.array(), 4, chunk.position() - 4); // the type and the data
+        chunk.putInt((int) crc.getValue());
+        writeFully(out, chunk.flip());
+    }
+
+    /**
+     * Waits for 'future' and returns its band, rethrowing anything drawing it threw
+     */
+    private static Band await(Future<Band> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while drawing the image");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Drawing the image failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes all of 'buffer' to 'out'
+     */
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Exports a maze saved in 'MazeFormat' from the command line:
+     * 'PngWriter maze-file png-file [cell-size] [threads]'. The maze is memory-mapped rather than
+     * read, and drawn in the window's default colors with a thread per processor unless told
+     * otherwise.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: PngWriter maze-file png-file [cell-size] [threads]");
+            System.exit(2);
+        }
+        Maze maze = MazeFormat.read(Path.of(args[0]));
+        Path file = Path.of(args[1]);
+        int cellSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CELL_SIZE;
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+        if (!MazeRenderer.drawsLines(cellSize)) {
+            System.err.println("cell-size must be at least " + MazeRenderer.MIN_LINE_CELL_SIZE);
+            System.exit(2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(maze.grid(), cellSize, Color.CYAN, Color.BLACK, channel, executor,
+                    threads * DEFAULT_PENDING_PER_THREAD);
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long pixels = ((long) maze.grid().cols() * cellSize + 1)
+                * ((long) maze.grid().rows() * cellSize + 1);
+        System.err.printf("%,d pixels in %.2f s, %,.0f Mpixels/s on %d threads%n", pixels,
+                seconds, pixels / seconds / 1e6, threads);
+    }
+}
@@ -0,0 +1,128 @@
+package MazeProgram;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Randomized Prim's algorithim. The maze grows from a random cell. Every step takes a random cell
+ * from the frontier of cells bordering the maze, connects it to a random neighbor already in the
+ * maze, and adds its other neighbors to the frontier. The frontier is an 'int[]' of cell indices
+ * with swap removal, and membership of the maze and frontier are kept in bitsets.
+ */
+public class Prim implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The cells bordering the maze, in no particular order
+     */
+    private final int[] frontier;
+    private int frontierSize;
+
+    /**
+     * The cells that are part of the maze and the cells that are in the frontier
+     */
+    private final BitSet inMaze;
+    private final BitSet inFrontier;
+
+    /**
+     * The number of cells added to the maze, each once
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'Prim' that carves 'grid' using 'rand', starting from a random cell.
+     * Requires that 'grid' has every wall intact and 'rand' is not null.
+     */
+    public Prim(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        int n = grid.intCellCount();
+        this.grid = grid;
+        this.rand = rand;
+        this.frontier = new int[n];
+        this.inMaze = new BitSet(n);
+        this.inFrontier = new BitSet(n);
+        addToMaze(rand.nextInt(n));
+    }
+
+    /**
+     * Starts over on 'newGrid', clearing the bitsets in place. Returns false if 'newGrid' doesn't
+     * have the same dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        inMaze.clear();
+        inFrontier.clear();
+        frontierSize = 0;
+        visits = 0;
+        addToMaze(rand.nextInt(frontier.length));
+        return true;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return frontierSize == 0;
+    }
+
+    /**
+     * Connects a random frontier cell to the maze. Returns whether there are steps left to
+     * perform.
+     */
+    @Override
+    public boolean step() {
+        if (frontierSize == 0) {
+            return false;
+        }
+        int i = rand.nextInt(frontierSize);
+        int cell = frontier[i];
+        frontier[i] = frontier[--frontierSize];
+
+        int mask = 0;
+        int neighbors = grid.neighborMask(cell);
+        for (int dir = MazeGrid.TOP; dir <= MazeGrid.LEFT; dir++) {
+            if ((neighbors & (1 << dir)) != 0 && inMaze.get((int) (cell + grid.offset(dir)))) {
+                mask |= 1 << dir;
+            }
+        }
+        grid.removeWall(cell, MazeAlgorithm.randomDirection(mask, rand));
+        addToMaze(cell);
+        return frontierSize > 0;
+    }
+
+    /**
+     * Adds 'cell' to the maze and its neighbors outside of the maze to the frontier
+     */
+    private void addToMaze(int cell) {
+        inMaze.set(cell);
+        visits++;
+        int neighbors = grid.neighborMask(cell);
+        for (int dir = MazeGrid.TOP; dir <= MazeGrid.LEFT; dir++) {
+            if ((neighbors & (1 << dir)) != 0) {
+                int neighbor = (int) (cell + grid.offset(dir));
+                if (!inMaze.get(neighbor) && !inFrontier.get(neighbor)) {
+                    inFrontier.set(neighbor);
+                    frontier[frontierSize++] = neighbor;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+
+/**
+ * The recursive backtracking algorithim run over a 'MazeGrid', independent of any graphical
+ * component. By visualizing a maze as a grid, with each cell having four walls, the algorithim
+ * starts with a random cell, marks it as visited and selects a random unvisited neighbor, removing
+ * the wall between the chosen cell and neighbor. The neighbor is then marked as visited and will
+ * be the next cell to be chosen. A stack is implemented to allow for backtracking in the event
+ * that a chosen cell's neighbors have all been visited, in which the algorithim will backtrack to
+ * a cell with an unvisited neighbor until all cells have been visited. Implemented iteratively to
+ * avoid stack overflows, one step at a time so that callers can animate it.
+ */
+public class RecursiveBacktracker implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The rectangle of the grid the maze is carved in, given by its first row and column and its
+     * size. Covers the whole grid unless carving a single tile of a larger maze.
+     */
+    private final int firstRow;
+    private final int firstCol;
+    private final int regionRows;
+    private final int regionCols;
+
+    /**
+     * Whether other threads are carving other regions of the same grid at the same time
+     */
+    private final boolean concurrent;
+
+    /**
+     * The cell the algorithim is currently at, or -1 once the maze is complete, along with its
+     * row and column relative to the region and its index within the region, which indexes the
+     * visited set
+     */
+    private long currentCell;
+    private int currentRow;
+    private int currentCol;
+    private long currentLocal;
+
+    /**
+     * The stack used for backtracking. Rather than the cells themselves, it holds the direction
+     * taken to reach each cell on the path to 'currentCell', which is enough to walk back along
+     * that path.
+     */
+    private final DirectionStack stack;
+
+    /**
+     * The set of visited cells, one bit per cell of the region
+     */
+    private final WordStore visited;
+
+    /**
+     * The number of times a cell became the current cell, the inital cell included
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'RecursiveBacktracker' that carves 'grid' using 'rand', starting from a
+     * random cell. The visited set and stack are kept in the same kind of memory as the walls of
+     * 'grid'. Requires that 'grid' has every wall intact and 'rand' is not null.
+     */
+    public RecursiveBacktracker(MazeGrid grid, SplittableRandom rand) {
+        this(grid, rand, 0, 0, grid.rows(), grid.cols(), false,
+                grid.walls().allocate((grid.cellCount() + 63) >>> 6),
+                grid.walls().allocate(16));
+    }
+
+    /**
+     * Constructs a new 'RecursiveBacktracker' that only carves the 'regionRows' by 'regionCols'
+     * rectangle of 'grid' whose top left cell is at 'firstRow' and 'firstCol', leaving the walls
+     * around the rectangle intact. Other threads may carve other, non-overlapping regions of the
+     * same grid at the same time. The visited set and stack are kept on the Java heap. Requires
+     * that the region lies within 'grid' and has every wall intact and 'rand' is not null.
+     */
+    public RecursiveBacktracker(MazeGrid grid, SplittableRandom rand, int firstRow, int firstCol,
+                                int regionRows, int regionCols) {
+        this(grid, rand, firstRow, firstCol, regionRows, regionCols, true,
+                new HeapWordStore(((long) regionRows * regionCols + 63) >>> 6),
+                new HeapWordStore(16));
+    }
+
+    /**
+     * Constructs a new 'RecursiveBacktracker' over a region of 'grid', keeping the visited set in
+     * 'visited' and the stack in 'stackWords'
+     */
+    private RecursiveBacktracker(MazeGrid grid, SplittableRandom rand, int firstRow, int firstCol,
+                                 int regionRows, int regionCols, boolean concurrent,
+                                 WordStore visited, WordStore stackWords) {
+        assert grid != null && rand != null;
+        assert regionRows > 0 && regionCols > 0;
+        assert 0 <= firstRow && firstRow + regionRows <= grid.rows();
+        assert 0 <= firstCol && firstCol + regionCols <= grid.cols();
+        this.grid = grid;
+        this.rand = rand;
+        this.firstRow = firstRow;
+        this.firstCol = firstCol;
+        this.regionRows = regionRows;
+        this.regionCols = regionCols;
+        this.concurrent = concurrent;
+        this.visited = visited;
+        this.stack = new DirectionStack(stackWords);
+        start();
+    }
+
+    /**
+     * Starts a run at a random cell of the region, requiring an empty visited set and stack
+     */
+    private void start() {
+        // choose the inital cell
+        long srcLocal = rand.nextLong((long) regionRows * regionCols);
+        currentRow = (int) (srcLocal / regionCols);
+        currentCol = (int) (srcLocal % regionCols);
+        currentLocal = srcLocal;
+        currentCell = grid.index(firstRow + currentRow, firstCol + currentCol);
+        visits = 1;
+        visit(srcLocal); // mark it as visited, the inital cell starts the path
+    }
+
+    /**
+     * Starts over on 'newGrid' with the visited set and stack of the previous run, which keep
+     * however much memory they had grown to. Returns false if 'newGrid' doesn't have the same
+     * dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        visited.fill(0L);
+        stack.clear();
+        start();
+        return true;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public long peakStackDepth() {
+        return stack.peakSize();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return currentCell == -1;
+    }
+
+    @Override
+    public void run() {
+        while (currentCell != -1) {
+            step();
+        }
+    }
+
+    /**
+     * Performs a single step of the algorithim: if the current cell has an unvisited neighbor,
+     * removes the wall between them and moves to the neighbor, pushing the direction taken onto
+     * the stack. Otherwise pops a direction off the stack and backtracks to the cell it came from,
+     * finishing the maze once there is nowhere left to backtrack to. Returns whether there are
+     * steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (currentCell == -1) {
+            return false;
+        }
+        int dir = selectNeighbor();
+        if (dir != -1) { // if the cell has a neighbor that has not been visited
+            // remove the wall between the current neighbor and the current cell
+            if (concurrent) {
+                grid.removeWallConcurrently(currentCell, dir);
+            } else {
+                grid.removeWall(currentCell, dir);
+            }
+            move(dir);
+
+            visit(currentLocal); // mark the chosen cell as visited
+            stack.push(dir); // remember how the chosen cell was reached
+        } else if (!stack.isEmpty()) {
+            // walk back the way the current cell was reached
+            move(MazeGrid.opposite(stack.pop()));
+        } else {
+            currentCell = -1; // backtracked past the inital cell, every cell is visited
+        }
+        return currentCell != -1;
+    }
+
+    /**
+     * Moves the current cell to its neighbor in direction 'dir'
+     */
+    private void move(int dir) {
+        switch (dir) {
+            case MazeGrid.TOP:
+                currentRow--;
+                currentLocal -= regionCols;
+                break;
+            case MazeGrid.RIGHT:
+                currentCol++;
+                currentLocal++;
+                break;
+            case MazeGrid.BOTTOM:
+                currentRow++;
+                currentLocal += regionCols;
+                break;
+            default:
+                currentCol--;
+                currentLocal--;
+                break;
+        }
+        currentCell += grid.offset(dir);
+        visits++;
+    }
+
+    /**
+     * Selects a random direction of an unvisited neighbor of the current cell within the region.
+     * The directions of all unvisited neighbors are collected into a 4-bit mask and a random
+     * direction out of that mask is returned. Returns -1 if all neighbors have been visited.
+     */
+    private int selectNeighbor() {
+        int mask = 0;
+        if (currentRow != 0 && !isVisited(currentLocal - regionCols)) {
+            mask |= 1 << MazeGrid.TOP;
+        }
+        if (currentCol != regionCols - 1 && !isVisited(currentLocal + 1)) {
+            mask |= 1 << MazeGrid.RIGHT;
+        }
+        if (currentRow != regionRows - 1 && !isVisited(currentLocal + regionCols)) {
+            mask |= 1 << MazeGrid.BOTTOM;
+        }
+        if (currentCol != 0 && !isVisited(currentLocal - 1)) {
+            mask |= 1 << MazeGrid.LEFT;
+        }
+        if (mask == 0) {
+            return -1;
+        }
+        return MazeAlgorithm.randomDirection(mask, rand);
+    }
+
+    /**
+     * Returns whether the cell at index 'local' of the region has been visited
+     */
+    private boolean isVisited(long local) {
+        return (visited.get(local >>> 6) & (1L << local)) != 0;
+    }
+
+    /**
+     * Marks the cell at index 'local' of the region as visited
+     */
+    private void visit(long local) {
+        visited.set(local >>> 6, visited.get(local >>> 6) | (1L << local));
+    }
+}
@@ -0,0 +1,22 @@
+package MazeProgram;
+
+/**
+ * Derives independent seeds from a single seed, so that work split across threads or tasks can
+ * each have its own random number generator while the result only depends on the original seed
+ */
+public final class Seeds {
+
+    private Seeds() {
+    }
+
+    /**
+     * Returns the seed of stream number 'stream' derived from 'seed'. Different streams of the same
+     * seed give unrelated seeds, using the mixing function of SplitMix64.
+     */
+    public static long derive(long seed, long stream) {
+        long z = seed + (stream + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
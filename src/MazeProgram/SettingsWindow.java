@@ -3,12 +3,15 @@ package MazeProgram;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.GridLayout;
 import java.util.Random;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 
 /**
@@ -28,20 +31,90 @@ public class SettingsWindow extends JDialog {
 
     private final MazeGenerator mazeGenerator;
 
+    /**
+     * Generates mazes with the selected settings ahead of time when they aren't animated
+     */
+    private final MazePrefetcher prefetcher;
+
+    /**
+     * Spinners selecting the number of rows and columns of newly generated mazes
+     */
+    private final JSpinner rowsSpinner;
+    private final JSpinner colsSpinner;
+
+    /**
+     * Selects the algorithim used to solve the maze
+     */
+    private final JComboBox<MazeSolver> solverChoices;
+
+    /**
+     * Selects whether new mazes get a random seed, and the seed used for them if not, which shows
+     * the seed of the current maze
+     */
+    private final JCheckBox randomSeedOption;
+    private final JSpinner seedSpinner;
+
+    /**
+     * The most steps the animation may carve per frame
+     */
+    private static final int MAX_STEPS_PER_FRAME = 100000;
+
+    /**
+     * The most mazes that may be generated ahead
+     */
+    private static final int MAX_PREFETCH_DEPTH = 16;
+
     /**
      * Constructs a new 'SettingsWindow' object.
      */
-    public SettingsWindow(GridCell cellGrid, JPanel mainPanel, MazeGenerator mazeGenerator) {
+    public SettingsWindow(GridCell cellGrid, JPanel mainPanel, MazeGenerator mazeGenerator,
+            MazePrefetcher prefetcher) {
         this.cellGrid = cellGrid;
         this.mainPanel = mainPanel;
         this.mazeGenerator = mazeGenerator;
+        this.prefetcher = prefetcher;
 
         setTitle("Settings");
         setResizable(false);
         setLocationRelativeTo(null);
-        setPreferredSize(new Dimension(300, 200));
+        setPreferredSize(new Dimension(300, 440));
         add(createColorOptions());
-        add(showAnimationOption(), BorderLayout.SOUTH);
+
+        this.rowsSpinner = createSizeSpinner(MazeGUI.DEFAULT_ROWS);
+        this.colsSpinner = createSizeSpinner(MazeGUI.DEFAULT_COLS);
+        rowsSpinner.addChangeListener(e -> updatePrefetcher());
+        colsSpinner.addChangeListener(e -> updatePrefetcher());
+        JPanel sizePanel = new JPanel();
+        sizePanel.add(new JLabel("Rows"));
+        sizePanel.add(rowsSpinner);
+        sizePanel.add(new JLabel("Columns"));
+        sizePanel.add(colsSpinner);
+
+        JPanel optionsPanel = new JPanel(new GridLayout(0, 1));
+        optionsPanel.add(createAlgorithmOptions());
+        this.solverChoices = new JComboBox<>(MazeSolver.values());
+        optionsPanel.add(solverChoices);
+        optionsPanel.add(sizePanel);
+        optionsPanel.add(showAnimationOption());
+        optionsPanel.add(createSpeedOption());
+        this.randomSeedOption = new JCheckBox("Random Seed", true);
+        this.seedSpinner = new JSpinner(new SpinnerNumberModel(Long.valueOf(0),
+                Long.valueOf(Long.MIN_VALUE), Long.valueOf(Long.MAX_VALUE), Long.valueOf(1)));
+        seedSpinner.setEditor(new JSpinner.NumberEditor(seedSpinner, "#"));
+        seedSpinner.setEnabled(false);
+        randomSeedOption.addActionListener(e -> {
+            seedSpinner.setEnabled(!randomSeedOption.isSelected());
+            updatePrefetcher();
+        });
+        JPanel seedPanel = new JPanel();
+        seedPanel.add(randomSeedOption);
+        seedPanel.add(seedSpinner);
+        optionsPanel.add(seedPanel);
+        optionsPanel.add(createPrefetchOption());
+        JCheckBox metricsOption = new JCheckBox("Show Metrics");
+        metricsOption.addActionListener(e -> cellGrid.showMetrics(metricsOption.isSelected()));
+        optionsPanel.add(metricsOption);
+        add(optionsPanel, BorderLayout.SOUTH);
 
         JLabel colorText = new JLabel("Select Color");
         colorText.setHorizontalAlignment(SwingConstants.CENTER);
@@ -120,10 +193,124 @@ public class SettingsWindow extends JDialog {
 
     }
 
+    /**
+     * Creates and returns a JComboBox allowing the user to select the algorithim used to generate
+     * new mazes
+     */
+    private JComboBox<Algorithm> createAlgorithmOptions() {
+        JComboBox<Algorithm> algorithmChoices = new JComboBox<>(Algorithm.values());
+        algorithmChoices.addActionListener(e -> {
+            mazeGenerator.setAlgorithm((Algorithm) algorithmChoices.getSelectedItem());
+            updatePrefetcher();
+        });
+        return algorithmChoices;
+    }
+
+    /**
+     * Returns the color selected for the maze
+     */
+    public Color getColor() {
+        return cellGrid.getColor();
+    }
+
+    /**
+     * Returns the algorithim selected for solving the maze
+     */
+    public MazeSolver getSolver() {
+        return (MazeSolver) solverChoices.getSelectedItem();
+    }
+
+    /**
+     * Returns the number of rows selected for newly generated mazes
+     */
+    public int getRows() {
+        return (Integer) rowsSpinner.getValue();
+    }
+
+    /**
+     * Returns the number of columns selected for newly generated mazes
+     */
+    public int getCols() {
+        return (Integer) colsSpinner.getValue();
+    }
+
+    /**
+     * Returns whether new mazes should be generated from a random seed rather than 'getSeed()'
+     */
+    public boolean isRandomSeed() {
+        return randomSeedOption.isSelected();
+    }
+
+    /**
+     * Returns the seed selected for newly generated mazes
+     */
+    public long getSeed() {
+        return (Long) seedSpinner.getValue();
+    }
+
+    /**
+     * Shows 'seed' as the seed of the current maze, so it can be generated again by turning off
+     * random seeds
+     */
+    public void showSeed(long seed) {
+        seedSpinner.setValue(seed);
+    }
+
+    /**
+     * Creates and returns a spinner selecting one dimension of the maze, starting at 'initial'
+     */
+    private JSpinner createSizeSpinner(int initial) {
+        return new JSpinner(new SpinnerNumberModel(initial, 1, MazeGUI.MAX_SIZE, 1));
+    }
+
+    /**
+     * Creates and returns a panel with a spinner selecting the number of steps the animation
+     * carves per frame
+     */
+    private JPanel createSpeedOption() {
+        JSpinner stepsSpinner = new JSpinner(new SpinnerNumberModel(
+                MazeGenerator.DEFAULT_STEPS_PER_FRAME, 1, MAX_STEPS_PER_FRAME, 1));
+        stepsSpinner.addChangeListener(e -> {
+            mazeGenerator.setStepsPerFrame((Integer) stepsSpinner.getValue());
+        });
+        JPanel speedPanel = new JPanel();
+        speedPanel.add(new JLabel("Steps per frame"));
+        speedPanel.add(stepsSpinner);
+        return speedPanel;
+    }
+
+    /**
+     * Creates and returns a panel with a spinner selecting the number of mazes generated ahead
+     */
+    private JPanel createPrefetchOption() {
+        JSpinner depthSpinner = new JSpinner(new SpinnerNumberModel(
+                MazePrefetcher.DEFAULT_DEPTH, 0, MAX_PREFETCH_DEPTH, 1));
+        depthSpinner.addChangeListener(e -> {
+            prefetcher.setDepth((Integer) depthSpinner.getValue());
+        });
+        JPanel prefetchPanel = new JPanel();
+        prefetchPanel.add(new JLabel("Mazes generated ahead"));
+        prefetchPanel.add(depthSpinner);
+        return prefetchPanel;
+    }
+
+    /**
+     * Starts generating mazes with the selected settings ahead of time if new mazes are neither
+     * animated nor given a seed, and stops otherwise
+     */
+    private void updatePrefetcher() {
+        if (!mazeGenerator.isAnimated() && isRandomSeed()) {
+            prefetcher.prefetch(getRows(), getCols(), mazeGenerator.getAlgorithm());
+        } else {
+            prefetcher.stop();
+        }
+    }
+
     private JCheckBox showAnimationOption() {
         JCheckBox animationSelect = new JCheckBox("Show Animation", true);
         animationSelect.addActionListener(e -> {
             mazeGenerator.setAnimated();
+            updatePrefetcher();
         });
 
         return animationSelect;
@@ -0,0 +1,87 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+
+/**
+ * The sidewinder algorithim. Each row is carved from left to right into runs of cells joined by
+ * removing their right walls. Every cell randomly either extends the current run or closes it,
+ * and a closed run removes the top wall of one random cell in it. The top row is a single run.
+ * Only the start of the current run is remembered, so it needs no memory besides the grid.
+ */
+public class Sidewinder implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private final SplittableRandom rand;
+
+    /**
+     * The position of the next cell to handle and the column the current run started in
+     */
+    private int row;
+    private int col;
+    private int runStart;
+
+    /**
+     * The number of cells handled, each once
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'Sidewinder' that carves 'grid' using 'rand'. Requires that 'grid' has
+     * every wall intact and 'rand' is not null.
+     */
+    public Sidewinder(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        this.grid = grid;
+        this.rand = rand;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return row == grid.rows();
+    }
+
+    /**
+     * Handles the next cell, extending or closing the current run. Returns whether there are steps
+     * left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (row == grid.rows()) {
+            return false;
+        }
+        boolean lastCol = col == grid.cols() - 1;
+        if (row == 0) {
+            if (!lastCol) {
+                grid.removeWall(grid.index(row, col), MazeGrid.RIGHT);
+            }
+        } else if (lastCol || rand.nextBoolean()) { // close the run
+            int chosen = runStart + rand.nextInt(col - runStart + 1);
+            grid.removeWall(grid.index(row, chosen), MazeGrid.TOP);
+            runStart = col + 1;
+        } else {
+            grid.removeWall(grid.index(row, col), MazeGrid.RIGHT);
+        }
+
+        visits++;
+        if (lastCol) {
+            row++;
+            col = 0;
+            runStart = 0;
+        } else {
+            col++;
+        }
+        return row != grid.rows();
+    }
+}
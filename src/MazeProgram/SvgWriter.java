@@ -0,0 +1,143 @@
+package MazeProgram;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Streams images of mazes as SVG files, drawing the walls as the maximal straight runs found by
+ * 'WallRuns' rather than a line per wall of each cell. The runs are written as they are found,
+ * the runs ending on each row of cells as one path, so neither the runs nor the file are ever
+ * held in memory. Coordinates are in cells, scaled to pixels by the size of the image, so the
+ * runs are written in whole numbers.
+ */
+public final class SvgWriter {
+
+    /**
+     * The number of pixels per cell of images exported unless another number is given
+     */
+    public static final int DEFAULT_CELL_SIZE = 8;
+
+    /**
+     * The width of the walls in cells, and the margin around the maze leaving room for half of
+     * the width of its border
+     */
+    private static final String WALL_WIDTH = "0.2";
+    private static final double MARGIN = 0.1;
+
+    private SvgWriter() {
+    }
+
+    /**
+     * Writes an image of 'grid' with cells 'cellSize' pixels wide, its walls in 'wall' over
+     * 'background', to 'file', which is created or overwritten. Requires that 'grid', 'wall',
+     * 'background' and 'file' are not null and 'cellSize' is positive.
+     */
+    public static void write(MazeGrid grid, int cellSize, Color wall, Color background, Path file)
+            throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(grid, cellSize, wall, background, out);
+        }
+    }
+
+    /**
+     * Writes an image of 'grid' like 'write(grid, cellSize, wall, background, file)' to 'out',
+     * which should be buffered. Requires that 'out' is not null.
+     */
+    public static void write(MazeGrid grid, int cellSize, Color wall, Color background,
+                             Writer out) throws IOException {
+        assert grid != null && wall != null && background != null && out != null;
+        assert cellSize > 0;
+        double width = grid.cols() + 2 * MARGIN;
+        double height = grid.rows() + 2 * MARGIN;
+        out.write(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%.1f\" height=\"%.1f\""
+                        + " viewBox=\"%.1f %.1f %.1f %.1f\">%n",
+                width * cellSize, height * cellSize, -MARGIN, -MARGIN, width, height));
+        out.write(String.format(Locale.ROOT,
+                "<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%.1f\" fill=\"%s\"/>%n",
+                -MARGIN, -MARGIN, width, height, hex(background)));
+        out.write("<g fill=\"none\" stroke=\"" + hex(wall) + "\" stroke-width=\"" + WALL_WIDTH
+                + "\" stroke-linecap=\"square\">\n");
+        RunPaths paths = new RunPaths(out);
+        WallRuns.sweep(grid, paths);
+        paths.flush();
+        out.write("</g>\n</svg>\n");
+    }
+
+    /**
+     * Returns 'color' as an SVG color, such as '#00ffff'
+     */
+    private static String hex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+    }
+
+    /**
+     * Writes the runs it receives as moves and lines of paths, starting a new path whenever the
+     * sweep moves on to another row
+     */
+    private static final class RunPaths implements WallRuns.Visitor {
+
+        private final Writer out;
+
+        /**
+         * The path being built, and the line of the horizontal runs it holds, those being
+         * received a row at a time
+         */
+        private final StringBuilder path = new StringBuilder();
+        private int pathY = -1;
+
+        RunPaths(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void horizontal(int y, int fromX, int toX) throws IOException {
+            if (y != pathY) {
+                flush();
+                pathY = y;
+            }
+            path.append('M').append(fromX).append(' ').append(y).append('h').append(toX - fromX);
+        }
+
+        @Override
+        public void vertical(int x, int fromY, int toY) throws IOException {
+            path.append('M').append(x).append(' ').append(fromY).append('v').append(toY - fromY);
+        }
+
+        /**
+         * Writes the path being built, if it holds any runs
+         */
+        void flush() throws IOException {
+            if (path.length() > 0) {
+                out.write("<path d=\"");
+                out.append(path);
+                out.write("\"/>\n");
+                path.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Exports a maze saved in 'MazeFormat' from the command line:
+     * 'SvgWriter maze-file svg-file [cell-size]'. The maze is memory-mapped rather than read, and
+     * drawn in the window's default colors.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: SvgWriter maze-file svg-file [cell-size]");
+            System.exit(2);
+        }
+        Maze maze = MazeFormat.read(Path.of(args[0]));
+        int cellSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CELL_SIZE;
+        long start = System.nanoTime();
+        write(maze.grid(), cellSize, Color.CYAN, Color.BLACK, Path.of(args[1]));
+        System.err.printf("%,d cells in %.2f s%n", maze.grid().cellCount(),
+                (System.nanoTime() - start) / 1e9);
+    }
+}
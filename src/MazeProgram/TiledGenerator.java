@@ -0,0 +1,232 @@
+package MazeProgram;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Generates a maze in parallel by splitting the grid into square tiles, carving a perfect maze
+ * inside each tile with the recursive backtracker on a 'ForkJoinPool', and then stitching the
+ * tiles together. The stitching opens one wall on the shared border of each pair of tiles joined
+ * by a random spanning tree over the tiles, so the result is still a single perfect maze: every
+ * cell is reachable and there are no loops. Every tile draws from its own seed derived from the
+ * maze's seed, so the maze only depends on the seed and tile size, not on the number of threads.
+ * When stepped, the tiles are carved one after another on the calling thread instead, giving the
+ * same maze.
+ */
+public class TiledGenerator implements MazeAlgorithm {
+
+    /**
+     * The width of the tiles used when none is given
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /**
+     * The grid whose walls are removed
+     */
+    private final MazeGrid grid;
+
+    /**
+     * The seed the seeds of the tiles and the stitching are derived from
+     */
+    private final long seed;
+
+    /**
+     * The width of the tiles and the number of rows and columns of tiles
+     */
+    private final int tileSize;
+    private final int tileRows;
+    private final int tileCols;
+
+    /**
+     * The pool the tiles are carved on by 'run'
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The next tile to carve when stepping, and the algorithim carving it if it has been started
+     */
+    private int nextTile;
+    private RecursiveBacktracker tileBacktracker;
+
+    /**
+     * Whether the tiles have been stitched together, completing the maze
+     */
+    private boolean stitched;
+
+    /**
+     * The cells visited by the backtrackers of the tiles carved so far, added to by every tile
+     * once it is finished, from whichever thread carved it
+     */
+    private final AtomicLong visits = new AtomicLong();
+
+    /**
+     * Constructs a new 'TiledGenerator' that carves 'grid' from 'seed' using tiles 'tileSize'
+     * cells wide, running the tiles on 'pool'. Requires that 'grid' has every wall intact,
+     * 'tileSize' is positive and 'pool' is not null.
+     */
+    public TiledGenerator(MazeGrid grid, long seed, int tileSize, ForkJoinPool pool) {
+        assert grid != null && pool != null && tileSize > 0;
+        this.grid = grid;
+        this.seed = seed;
+        this.tileSize = tileSize;
+        this.tileRows = (grid.rows() + tileSize - 1) / tileSize;
+        this.tileCols = (grid.cols() + tileSize - 1) / tileSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Carves 'grid' into a perfect maze from 'seed' using tiles 'tileSize' cells wide, running
+     * the tiles on 'pool'. Requires that 'grid' has every wall intact, 'tileSize' is positive and
+     * 'pool' is not null.
+     */
+    public static void generate(MazeGrid grid, long seed, int tileSize, ForkJoinPool pool) {
+        new TiledGenerator(grid, seed, tileSize, pool).run();
+    }
+
+    /**
+     * Returns the cells visited by the backtrackers carving the tiles, those of the tile being
+     * stepped included. Stitching the tiles together visits no cells.
+     */
+    @Override
+    public long cellsVisited() {
+        return visits.get() + (tileBacktracker == null ? 0 : tileBacktracker.cellsVisited());
+    }
+
+    @Override
+    public boolean isComplete() {
+        return stitched;
+    }
+
+    /**
+     * Carves the tiles that are left in parallel and stitches them together
+     */
+    @Override
+    public void run() {
+        run(() -> false);
+    }
+
+    /**
+     * Carves the tiles that are left in parallel and stitches them together like 'run()', but
+     * checks 'stop' before carving each tile and carves no more tiles once it returns true. A
+     * stopped maze is left incomplete with an unknown set of its tiles carved, and must not be
+     * run or stepped again. Returns whether the maze is complete. Requires that 'stop' is not
+     * null.
+     */
+    public boolean run(BooleanSupplier stop) {
+        assert stop != null;
+        if (stitched) {
+            return true;
+        }
+        if (tileBacktracker != null) { // finish the tile a previous step started
+            tileBacktracker.run();
+            visits.addAndGet(tileBacktracker.cellsVisited());
+            tileBacktracker = null;
+            nextTile++;
+        }
+        pool.invoke(new TileTask(nextTile, tileRows * tileCols, stop));
+        nextTile = tileRows * tileCols;
+        if (stop.getAsBoolean()) {
+            return false;
+        }
+        stitch();
+        return true;
+    }
+
+    /**
+     * Performs a single step of the backtracker carving the current tile, or stitches the tiles
+     * together once all of them are carved. Returns whether there are steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (stitched) {
+            return false;
+        }
+        if (nextTile == tileRows * tileCols) {
+            stitch();
+            return false;
+        }
+        if (tileBacktracker == null) {
+            tileBacktracker = tile(nextTile);
+        }
+        if (!tileBacktracker.step()) {
+            visits.addAndGet(tileBacktracker.cellsVisited());
+            tileBacktracker = null;
+            nextTile++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a backtracker carving tile number 'tile', counted in row-major order
+     */
+    private RecursiveBacktracker tile(int tile) {
+        int firstRow = (tile / tileCols) * tileSize;
+        int firstCol = (tile % tileCols) * tileSize;
+        return new RecursiveBacktracker(grid, new SplittableRandom(Seeds.derive(seed, tile)),
+                firstRow, firstCol,
+                Math.min(tileSize, grid.rows() - firstRow),
+                Math.min(tileSize, grid.cols() - firstCol));
+    }
+
+    /**
+     * Joins the separately carved tiles into one maze. A perfect maze is carved over a grid with a
+     * cell per tile, and for every wall it removes, a wall at a random position along the border
+     * of the two corresponding tiles is removed from 'grid'.
+     */
+    private void stitch() {
+        SplittableRandom rand = new SplittableRandom(Seeds.derive(seed, tileRows * tileCols));
+        MazeGrid tiles = new MazeGrid(tileRows, tileCols);
+        new RecursiveBacktracker(tiles, rand).run();
+
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            int firstRow = tileRow * tileSize;
+            int height = Math.min(tileSize, grid.rows() - firstRow);
+            for (int tileCol = 0; tileCol < tileCols; tileCol++) {
+                int firstCol = tileCol * tileSize;
+                int width = Math.min(tileSize, grid.cols() - firstCol);
+                long tile = tiles.index(tileRow, tileCol);
+                if (tileCol != tileCols - 1 && !tiles.hasWall(tile, MazeGrid.RIGHT)) {
+                    int row = firstRow + rand.nextInt(height);
+                    grid.removeWall(grid.index(row, firstCol + width - 1), MazeGrid.RIGHT);
+                }
+                if (tileRow != tileRows - 1 && !tiles.hasWall(tile, MazeGrid.BOTTOM)) {
+                    int col = firstCol + rand.nextInt(width);
+                    grid.removeWall(grid.index(firstRow + height - 1, col), MazeGrid.BOTTOM);
+                }
+            }
+        }
+        stitched = true;
+    }
+
+    /**
+     * Task carving the tiles numbered 'first' up to but not including 'last', splitting itself in
+     * half until each task has a single tile, which is skipped once 'stop' returns true
+     */
+    private class TileTask extends RecursiveAction {
+
+        private final int first;
+        private final int last;
+        private final BooleanSupplier stop;
+
+        TileTask(int first, int last, BooleanSupplier stop) {
+            this.first = first;
+            this.last = last;
+            this.stop = stop;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new TileTask(first, middle, stop), new TileTask(middle, last, stop));
+            } else if (last - first == 1 && !stop.getAsBoolean()) {
+                RecursiveBacktracker backtracker = tile(first);
+                backtracker.run();
+                visits.addAndGet(backtracker.cellsVisited());
+            }
+        }
+    }
+}
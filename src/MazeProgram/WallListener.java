@@ -0,0 +1,14 @@
+package MazeProgram;
+
+/**
+ * Callback notified by a 'MazeGrid' every time one of its walls is removed, so views of the grid
+ * can update only the cells that changed instead of redrawing the whole grid
+ */
+public interface WallListener {
+
+    /**
+     * Called after the wall between 'cell' and its neighbor in direction 'dir' of 'grid' was
+     * removed, on the thread that removed it
+     */
+    void wallRemoved(MazeGrid grid, long cell, int dir);
+}
@@ -0,0 +1,99 @@
+package MazeProgram;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Finds the walls of a maze as maximal straight runs, merging the walls of adjacent cells that
+ * lie along the same line into a single run, in one sweep down the rows of the grid. Positions
+ * are corners of cells: the line 'y' lies above row 'y' and the line 'x' to the left of column
+ * 'x', so a run along line 'y' from 'fromX' to 'toX' covers the walls on top of the cells of row
+ * 'y' from column 'fromX' to 'toX' exclusive. Horizontal runs are found a line at a time, and the
+ * vertical runs crossing the current row are kept open in an array of one start per line, so the
+ * sweep only needs memory for a row however many rows the grid has. A perfect maze of 'N' cells
+ * keeps about 'N' of its walls, which make up only about half as many runs, so drawing the runs
+ * draws half as many lines.
+ */
+public final class WallRuns {
+
+    /**
+     * Receives the runs found by 'sweep'
+     */
+    public interface Visitor {
+
+        /**
+         * Receives the run of walls along the horizontal line 'y' from 'fromX' to 'toX'
+         */
+        void horizontal(int y, int fromX, int toX) throws IOException;
+
+        /**
+         * Receives the run of walls along the vertical line 'x' from 'fromY' to 'toY'
+         */
+        void vertical(int x, int fromY, int toY) throws IOException;
+    }
+
+    private WallRuns() {
+    }
+
+    /**
+     * Passes every run of walls of 'grid', including its border, to 'visitor' in a single sweep
+     * from the top row to the bottom one. Each horizontal run is passed once the sweep reaches its
+     * line, and each vertical run once the sweep passes its end, so runs are passed in the order
+     * their last cell is read. Rethrows anything 'visitor' throws. Requires that 'grid' and
+     * 'visitor' are not null.
+     */
+    public static void sweep(MazeGrid grid, Visitor visitor) throws IOException {
+        assert grid != null && visitor != null;
+        int rows = grid.rows();
+        int cols = grid.cols();
+        // the row each open vertical run started at, or -1 where the line has no wall
+        int[] verticalStarts = new int[cols + 1];
+        Arrays.fill(verticalStarts, -1);
+
+        visitor.horizontal(0, 0, cols); // the top border
+        for (int row = 0; row < rows; row++) {
+            long rowStart = grid.index(row, 0);
+            if (row > 0) {
+                horizontalRuns(grid, visitor, row, rowStart - cols);
+            }
+            for (int x = 0; x <= cols; x++) {
+                // the left border, then the right walls of the cells of the row
+                boolean wall = x == 0 || (grid.wallBits(rowStart + x - 1) & 1) != 0;
+                if (wall && verticalStarts[x] < 0) {
+                    verticalStarts[x] = row;
+                } else if (!wall && verticalStarts[x] >= 0) {
+                    visitor.vertical(x, verticalStarts[x], row);
+                    verticalStarts[x] = -1;
+                }
+            }
+        }
+        horizontalRuns(grid, visitor, rows, grid.index(rows - 1, 0)); // the bottom border
+        for (int x = 0; x <= cols; x++) {
+            if (verticalStarts[x] >= 0) {
+                visitor.vertical(x, verticalStarts[x], rows);
+            }
+        }
+    }
+
+    /**
+     * Passes the runs along the horizontal line 'y', the bottom walls of the row of cells
+     * starting at 'rowStart', to 'visitor'
+     */
+    private static void horizontalRuns(MazeGrid grid, Visitor visitor, int y, long rowStart)
+            throws IOException {
+        int cols = grid.cols();
+        int start = -1;
+        for (int x = 0; x < cols; x++) {
+            boolean wall = (grid.wallBits(rowStart + x) & 2) != 0;
+            if (wall && start < 0) {
+                start = x;
+            } else if (!wall && start >= 0) {
+                visitor.horizontal(y, start, x);
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            visitor.horizontal(y, start, cols);
+        }
+    }
+}
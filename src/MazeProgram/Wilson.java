@@ -0,0 +1,153 @@
+package MazeProgram;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Wilson's algorithim, which picks uniformly among all possible mazes. Starting with a single
+ * random cell in the maze, a random walk is taken from the first cell outside of the maze until it
+ * reaches the maze. Each cell of the walk records the last direction it was left in, which erases
+ * any loops, and the walk is then retraced from its start along those directions, carving it into
+ * the maze. The directions are kept in a 'byte[]', so walks never allocate.
+ */
+public class Wilson implements MazeAlgorithm {
+
+    /**
+     * The grid whose walls are removed
+     */
+    private MazeGrid grid;
+
+    /**
+     * The random number generator shared by every step of the algorithim
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The cells that are part of the maze
+     */
+    private final BitSet inMaze;
+
+    /**
+     * The direction each cell of the current walk was last left in
+     */
+    private final byte[] walk;
+
+    /**
+     * The cell the current walk started from, or -1 between walks, and the cell it is at
+     */
+    private int walkStart;
+    private int walker;
+
+    /**
+     * A cell before which every cell is part of the maze. Cells never leave the maze, so walks
+     * look for their start from here and the search only ever moves forward.
+     */
+    private int scanFrom;
+
+    /**
+     * Whether the current walk has reached the maze and is being carved
+     */
+    private boolean carving;
+
+    /**
+     * The number of cells not yet in the maze
+     */
+    private int remaining;
+
+    /**
+     * The number of cells walks have been at, counting every step of a walk, including the
+     * steps retracing it while it is carved, and the cell starting the maze
+     */
+    private long visits;
+
+    /**
+     * Constructs a new 'Wilson' that carves 'grid' using 'rand', starting the maze from a random
+     * cell. Requires that 'grid' has every wall intact and 'rand' is not null.
+     */
+    public Wilson(MazeGrid grid, SplittableRandom rand) {
+        assert grid != null && rand != null;
+        int n = grid.intCellCount();
+        this.grid = grid;
+        this.rand = rand;
+        this.inMaze = new BitSet(n);
+        this.walk = new byte[n];
+        this.walkStart = -1;
+        this.remaining = n - 1;
+        this.visits = 1;
+        inMaze.set(rand.nextInt(n));
+    }
+
+    /**
+     * Starts over on 'newGrid', clearing the maze in place. The directions of the walk don't need
+     * clearing, as every walk writes a cell's direction before reading it. Returns false if
+     * 'newGrid' doesn't have the same dimensions as the grid this was created for.
+     */
+    @Override
+    public boolean restart(MazeGrid newGrid, SplittableRandom newRand) {
+        assert newGrid != null && newRand != null;
+        if (newGrid.rows() != grid.rows() || newGrid.cols() != grid.cols()) {
+            return false;
+        }
+        this.grid = newGrid;
+        this.rand = newRand;
+        inMaze.clear();
+        walkStart = -1;
+        scanFrom = 0;
+        carving = false;
+        remaining = walk.length - 1;
+        visits = 1;
+        inMaze.set(rand.nextInt(walk.length));
+        return true;
+    }
+
+    @Override
+    public long cellsVisited() {
+        return visits;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return remaining == 0;
+    }
+
+    /**
+     * Moves the current walk one cell, either taking a random step or carving the next cell of the
+     * walk into the maze. Returns whether there are steps left to perform.
+     */
+    @Override
+    public boolean step() {
+        if (remaining == 0) {
+            return false;
+        }
+        if (walkStart == -1) { // start a new walk from the first cell outside of the maze
+            walkStart = inMaze.nextClearBit(scanFrom);
+            scanFrom = walkStart;
+            walker = walkStart;
+            visits++;
+        }
+        int dir;
+        if (!carving) {
+            dir = MazeAlgorithm.randomDirection(grid.neighborMask(walker), rand);
+            walk[walker] = (byte) dir;
+            walker += (int) grid.offset(dir);
+            visits++;
+            if (inMaze.get(walker)) { // the walk reached the maze, carve it from the start
+                carving = true;
+                walker = walkStart;
+                visits++;
+            }
+            return true;
+        }
+        dir = walk[walker];
+        grid.removeWall(walker, dir);
+        inMaze.set(walker);
+        remaining--;
+        walker += (int) grid.offset(dir);
+        visits++;
+        if (inMaze.get(walker)) {
+            carving = false;
+            walkStart = -1;
+        }
+        return remaining > 0;
+    }
+}
@@ -0,0 +1,43 @@
+package MazeProgram;
+
+/**
+ * A fixed size array of 64-bit words addressed by a 'long' index, which is what the packed wall
+ * bits of a 'MazeGrid' and the bitsets and stacks of the algorithims are stored in. Allows the
+ * same code to run on a plain 'long[]' or on memory outside of the Java heap for grids too large
+ * to fit in it.
+ */
+public interface WordStore {
+
+    /**
+     * Returns the number of words in the store
+     */
+    long size();
+
+    /**
+     * Returns the word at 'index'. Requires that 0 <= 'index' < 'size()'.
+     */
+    long get(long index);
+
+    /**
+     * Sets the word at 'index' to 'value'. Requires that 0 <= 'index' < 'size()'.
+     */
+    void set(long index, long value);
+
+    /**
+     * Atomically clears the set bits of 'bits' in the word at 'index', so several threads may
+     * clear bits of the same word at once without losing each other's updates. Requires that 0 <=
+     * 'index' < 'size()'.
+     */
+    void clearBitsAtomically(long index, long bits);
+
+    /**
+     * Sets every word in the store to 'value'
+     */
+    void fill(long value);
+
+    /**
+     * Returns a new store of 'words' zeroed words kept in the same kind of memory as this one.
+     * Used to allocate the working memory of an algorithim alongside the grid it runs on.
+     */
+    WordStore allocate(long words);
+}